@@ -0,0 +1,118 @@
+package gymtracker;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for changing and querying loaded data. The data is only
+ * written to the disk when it is closed, so that the benchmarks measure the
+ * work of Data rather than the disk. Messages are not printed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DataBenchmark {
+    private final static int DELETIONS = 1000;
+
+    /**
+     * Class for the data loaded from a copy of a generated data directory
+     */
+    @State(Scope.Benchmark)
+    public static class Dataset {
+        @Param({"10000", "1000000", "10000000"})
+        public int sets;
+
+        private Data data;
+        private String directory;
+        private String date;
+        private boolean renamed;
+        private PrintStream originalOut;
+
+        @Setup
+        public void setUp() throws IOException {
+            originalOut = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            directory = Datasets.copyOfDirectory(sets);
+            data = new Data(new FileHandler(Durability.onQuit(), true), directory);
+            date = Datasets.set(sets / 2, sets).date;
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            data.close();
+            System.setOut(originalOut);
+            Datasets.delete(Path.of(directory));
+        }
+    }
+
+    /**
+     * Class for the sets that deleteLastSet deletes, added again before
+     * every iteration so that the data keeps its size
+     */
+    @State(Scope.Benchmark)
+    public static class Deletions {
+        @Setup(Level.Iteration)
+        public void addSets(Dataset dataset) {
+            ArrayList<Set> newSets = new ArrayList<>();
+            for (int i = 0; i < DELETIONS; i++) {
+                newSets.add(Datasets.set(dataset.sets - 1, dataset.sets));
+            }
+            dataset.data.addSets(newSets, false);
+        }
+    }
+
+    @Benchmark
+    public boolean addSet(Dataset dataset) {
+        Set newSet = Datasets.set(dataset.sets - 1, dataset.sets);
+        return dataset.data.addSet(newSet);
+    }
+
+    @Benchmark
+    public Page printSetsForDate(Dataset dataset) {
+        return dataset.data.printSetsForDate(dataset.date, new Page(0, 100));
+    }
+
+    @Benchmark
+    public void modifyExerciseName(Dataset dataset) {
+        String name = Datasets.exerciseName(0);
+        if (dataset.renamed) {
+            dataset.data.modifyExerciseName(name + " renamed", name);
+        }
+        else {
+            dataset.data.modifyExerciseName(name, name + " renamed");
+        }
+        dataset.renamed = !dataset.renamed;
+    }
+
+    /**
+     * deletes one of the sets added before the iteration. The score is the
+     * time taken by all the deletions of an iteration.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3, batchSize = DELETIONS)
+    @Measurement(iterations = 5, batchSize = DELETIONS)
+    public boolean deleteLastSet(Dataset dataset, Deletions deletions) {
+        return dataset.data.deleteLastSet();
+    }
+}
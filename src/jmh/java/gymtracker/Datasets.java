@@ -0,0 +1,173 @@
+package gymtracker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Generated data for the benchmarks. The sets are spread evenly over ten
+ * years and a small catalog of exercises. Each data directory and set log
+ * is generated once under target/benchmark-data and reused by later runs,
+ * and benchmarks that change data work on a copy of the directory.
+ */
+class Datasets {
+    final static int EXERCISES = 20;
+    final static int DAYS = 3650;
+    final static LocalDate FIRST_DAY = LocalDate.of(2015, 1, 1);
+
+    private final static Path DIRECTORY = Path.of("target", "benchmark-data");
+    private final static int BATCH_SIZE = 10000;
+
+    /**
+     * returns a new copy of a data directory with given number of sets
+     * @param sets: the number of sets
+     * @return path to the copy
+     * @throws IOException, if the directory cannot be generated or copied
+     */
+    static String copyOfDirectory(int sets) throws IOException {
+        Path directory = DIRECTORY.resolve("data-" + sets);
+        if (!Files.exists(directory.resolve("complete"))) {
+            delete(directory);
+            Files.createDirectories(directory);
+            generateDirectory(directory, sets);
+            Files.createFile(directory.resolve("complete"));
+        }
+        Path copy = Files.createTempDirectory(DIRECTORY, "work-");
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Path target = copy.resolve(directory.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(target);
+                }
+                else {
+                    Files.copy(path, target);
+                }
+            }
+        }
+        return copy.toString();
+    }
+
+    /**
+     * returns a set log with given number of sets and no other entries
+     * @param sets: the number of sets
+     * @return path to the log
+     * @throws IOException, if the log cannot be generated
+     */
+    static String setLog(int sets) throws IOException {
+        Path log = DIRECTORY.resolve("sets-" + sets + ".txt");
+        if (!Files.exists(log)) {
+            Files.createDirectories(DIRECTORY);
+            Path tempLog = DIRECTORY.resolve("sets-" + sets + ".txt.tmp");
+            Files.deleteIfExists(tempLog);
+            FileHandler files = new FileHandler(Durability.onQuit(), false);
+            boolean written = files.writeAllToFile(tempLog.toString(), () -> new Iterator<Set>() {
+                private int i = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return i < sets;
+                }
+
+                @Override
+                public Set next() {
+                    Set set = set(i, sets);
+                    set.id = ++i;
+                    return set;
+                }
+            });
+            files.close();
+            if (!written) {
+                throw new IOException("Unable to write " + tempLog);
+            }
+            Files.move(tempLog, log);
+        }
+        return log.toString();
+    }
+
+    /**
+     * creates the set at a position of a dataset
+     * @param i: the position of the set
+     * @param sets: the number of sets in the dataset
+     * @return the set, without an id
+     */
+    static Set set(int i, int sets) {
+        Set set = new Set();
+        set.day = FIRST_DAY.plusDays((long) i * DAYS / sets);
+        set.date = set.day.toString();
+        set.exerciseId = i % EXERCISES + 1;
+        set.exercise = exerciseName(i % EXERCISES);
+        set.weight = 20 + i % 50 * 2.5f;
+        set.reps = 1 + i % 12;
+        return set;
+    }
+
+    /**
+     * returns the name of an exercise of the catalog
+     * @param i: the position of the exercise
+     * @return the name
+     */
+    static String exerciseName(int i) {
+        return "Exercise " + i;
+    }
+
+    /**
+     * deletes a directory and everything in it
+     * @param directory: the directory
+     * @throws IOException, if a file cannot be deleted
+     */
+    static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * adds the exercises and sets of a dataset to an empty data directory
+     * @param directory: the directory
+     * @param sets: the number of sets
+     * @throws IOException, if the data cannot be written
+     */
+    private static void generateDirectory(Path directory, int sets) throws IOException {
+        Data data = new Data(new FileHandler(Durability.onQuit(), false), directory.toString());
+        data.beginBatch();
+        try {
+            ArrayList<Exercise> exercises = new ArrayList<>();
+            for (int i = 0; i < EXERCISES; i++) {
+                Exercise exercise = new Exercise();
+                exercise.name = exerciseName(i);
+                exercise.primaryMuscles = new ArrayList<>(List.of("chest"));
+                exercise.secondaryMuscles = new ArrayList<>(List.of("triceps"));
+                exercise.type = "push";
+                exercises.add(exercise);
+            }
+            if (data.addExercises(exercises) == null) {
+                throw new IOException("Unable to write exercises to " + directory);
+            }
+            ArrayList<Set> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < sets; i++) {
+                batch.add(set(i, sets));
+                if (batch.size() == BATCH_SIZE || i == sets - 1) {
+                    if (data.addSets(batch, false) == null) {
+                        throw new IOException("Unable to write sets to " + directory);
+                    }
+                    batch.clear();
+                }
+            }
+        }
+        finally {
+            data.endBatch();
+            data.close();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package gymtracker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for reading and writing the set log. Writes use the default
+ * durability of the program, so every record is flushed to the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FileHandlerBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int sets;
+
+    private String logPath;
+    private String appendPath;
+    private FileHandler files;
+    private Set newSet;
+
+    @Setup
+    public void setUp() throws IOException {
+        logPath = Datasets.setLog(sets);
+        appendPath = Files.createTempFile(Path.of("target", "benchmark-data"), "append-", ".txt").toString();
+        files = new FileHandler();
+        newSet = Datasets.set(sets / 2, sets);
+        newSet.id = sets + 1;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        files.close();
+        Files.deleteIfExists(Path.of(appendPath));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void parseFile(Blackhole blackhole) {
+        files.parseFile(logPath, Set.class, blackhole::consume);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean writeToFile() {
+        return files.writeToFile(appendPath, newSet);
+    }
+}
@@ -1,8 +1,15 @@
 package gymtracker;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Scanner;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Class for handling user inputs
@@ -29,26 +36,133 @@ public class App {
         "print exercises <name>: print one exercise",
         "print sets: print all sets",
         "print sets date <date>: print sets for date",
+        "print sets from <date> to <date>: print sets between two dates",
+        "print sets exercise <name>: print sets of an exercise",
+        "print stats <exercise>: print statistics for an exercise",
+        "print prs <exercise>: print the heaviest weight for each rep count of an exercise",
+        "print muscles week <date>: print sets and volume for each muscle during the week of a date",
+        "print summary <exercise> weekly|monthly: print weekly or monthly totals of an exercise",
+        "print exercises|sets ... --limit <n> --offset <n>: print n rows after skipping some rows",
+        "more: print the next page of the last exercise or set listing",
         "clear exercises: clear all exercises",
         "clear sets: clear all sets",
-        "delete exercise <name>: delete exercise with given name",
+        "delete exercise <name> [--with-sets]: delete exercise with given name, optionally with its sets",
         "delete set: delete set that was added last",
+        "delete set <id>: delete set with given id",
         "modify exercise name: modify exercise name with prompts",
         "modify exercise primary: modify exercise primary muscles with prompts",
         "modify exercise secondary: modify exercise secondary muscles with prompts",
         "modify exercise type: modify exercise type with prompts",
+        "modify set <id>: modify set with given id with prompts",
+        "modify set <id> <date>;<exercise>;<weight>;<reps>: modify set with given id without prompts",
+        "compact: write snapshots of the saved data and shorten the logs",
+        "convert sets binary|text: choose the file format of set snapshots",
+        "import exercises <file>: import exercises from a CSV file of name,primary muscles,secondary muscles,type",
+        "import sets <file> [--create-exercises]: import sets from a CSV file of date,exercise,weight,reps",
+        "use <athlete>: switch to the data of another athlete",
         "quit: exit the program",
         "help: see these instructions"
     };
 
+    private final static int PAGE_SIZE = 100;
+
+    private final static String USAGE =
+        "Usage: java -jar GymTracker.jar [--durability record|group|group:<records>:<millis>|quit]"
+        + " [--sequential-load] [--serve <port>] [--memory-budget <megabytes>] [--script <file>|-]"
+        + " [--data <directory>]";
+
     public static void main(String[] args) {
-        Data data = new Data();
+        Durability durability = null;
+        boolean parallelLoading = Runtime.getRuntime().availableProcessors() > 1;
+        Integer port = null;
+        long memoryBudget = Runtime.getRuntime().maxMemory() / 2;
+        String script = null;
+        String directory = Data.DEFAULT_DIRECTORY;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--durability") && i + 1 < args.length) {
+                try {
+                    durability = Durability.parse(args[++i]);
+                }
+                catch (IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                    System.out.println(USAGE);
+                    return;
+                }
+            }
+            else if (args[i].equals("--sequential-load")) {
+                parallelLoading = false;
+            }
+            else if (args[i].equals("--serve") && i + 1 < args.length) {
+                try {
+                    port = Integer.parseInt(args[++i]);
+                }
+                catch (NumberFormatException e) {
+                    System.out.println("Incorrect format for port.");
+                    System.out.println(USAGE);
+                    return;
+                }
+            }
+            else if (args[i].equals("--memory-budget") && i + 1 < args.length) {
+                try {
+                    memoryBudget = Long.parseLong(args[++i]) << 20;
+                }
+                catch (NumberFormatException e) {
+                    System.out.println("Incorrect format for memory budget.");
+                    System.out.println(USAGE);
+                    return;
+                }
+            }
+            else if (args[i].equals("--script") && i + 1 < args.length) {
+                script = args[++i];
+            }
+            else if (args[i].equals("--data") && i + 1 < args.length) {
+                directory = args[++i];
+            }
+            else {
+                System.out.println(USAGE);
+                return;
+            }
+        }
+        if (durability == null) {
+            // a script is saved as one batch when it has been run
+            durability = script != null ? Durability.onQuit() : Durability.perRecord();
+        }
+        Athletes athletes = new Athletes(directory, durability, parallelLoading, memoryBudget);
 
+        if (port != null) {
+            serve(athletes, port);
+            return;
+        }
+        if (script != null) {
+            runScript(athletes, script);
+            athletes.close();
+            return;
+        }
         try(Scanner inputReader = new Scanner(System.in)) {
+            runCommands(inputReader, athletes);
+        }
+        athletes.close();
+    }
+
+    /**
+     * reads and runs commands until the user quits or the input ends,
+     * starting with the data of the default athlete
+     * @param inputReader: for reading inputs
+     * @param athletes: for accessing the database of each athlete
+     */
+    public static void runCommands(Scanner inputReader, Athletes athletes) {
+        String athlete = Athletes.DEFAULT_ATHLETE;
+        Data data = athletes.use(athlete);
+        if (data == null) {
+            return;
+        }
+        try {
             System.out.println("Welcome to GymTracker. Type \"help\" to see commands.");
 
+            Function<Page, Page> listing = null;
+            Page nextPage = null;
             boolean appIsOn = true;
-            while (appIsOn) {
+            while (appIsOn && inputReader.hasNextLine()) {
                 String[] input = inputReader.nextLine().split(" ");
 
                 if (input.length == 0) {
@@ -62,11 +176,34 @@ public class App {
                     case("quit"):
                         appIsOn = false;
                         break;
+                    case("compact"):
+                        if (data.compact(true)) {
+                            System.out.println("Compaction succesful.");
+                        }
+                        else {
+                            System.out.println("Compaction failed.");
+                        }
+                        break;
                     case("add"):
                         addFromInput(tailOfInput, inputReader, data);
                         break;
                     case("print"):
-                        printFromInput(tailOfInput, data);
+                        Page page = new Page(0, PAGE_SIZE);
+                        String[] printInput = pageFromInput(tailOfInput, page);
+                        if (printInput == null) {
+                            break;
+                        }
+                        BiFunction<Data, Page, Page> print = printFromInput(printInput);
+                        Data printedData = data;
+                        listing = print != null ? nextRows -> print.apply(printedData, nextRows) : null;
+                        nextPage = listing != null ? printPage(listing, page) : null;
+                        break;
+                    case("more"):
+                        if (nextPage == null) {
+                            System.out.println("Nothing more to print.");
+                            break;
+                        }
+                        nextPage = printPage(listing, nextPage);
                         break;
                     case("clear"):
                         clearFromInput(tailOfInput, data);
@@ -77,6 +214,31 @@ public class App {
                     case("modify"):
                         modifyFromInput(tailOfInput, inputReader, data);
                         break;
+                    case("convert"):
+                        convertFromInput(tailOfInput, data);
+                        break;
+                    case("import"):
+                        Predicate<Data> importer = importFromInput(tailOfInput);
+                        if (importer != null) {
+                            importer.test(data);
+                        }
+                        break;
+                    case("use"):
+                        if (tailOfInput.length != 1) {
+                            System.out.println("Please specify one athlete.");
+                            break;
+                        }
+                        Data athleteData = athletes.use(tailOfInput[0]);
+                        if (athleteData == null) {
+                            System.out.println("Unable to use athlete " + tailOfInput[0] + ".");
+                            break;
+                        }
+                        athletes.release(athlete);
+                        athlete = tailOfInput[0];
+                        data = athleteData;
+                        nextPage = null;
+                        System.out.println("Using athlete " + athlete + ".");
+                        break;
                     case("help"):
                         for (String command : COMMANDS) {
                             System.out.println(command);
@@ -87,6 +249,61 @@ public class App {
                 }
             }
         }
+        finally {
+            athletes.release(athlete);
+        }
+    }
+
+    /**
+     * serves commands to clients over a local TCP socket until the program is stopped
+     * @param athletes: the data of the athletes, shared by all clients
+     * @param port: the port to listen on
+     */
+    private static void serve(Athletes athletes, int port) {
+        Server server;
+        try {
+            server = new Server(athletes, port);
+        }
+        catch (IOException e) {
+            System.out.println("Unable to listen on port " + port + ": " + e.getMessage());
+            athletes.close();
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            athletes.close();
+        }));
+        System.out.println("Serving GymTracker on port " + server.port() + ".");
+        server.run();
+    }
+
+    /**
+     * runs a script file, or a script read from standard input if the file is "-"
+     * @param athletes: for accessing the database of each athlete
+     * @param script: path to the script file
+     */
+    private static void runScript(Athletes athletes, String script) {
+        Path path = Path.of(script);
+        try {
+            if (script.equals("-")) {
+                // standard input can only be read once, but a script is read twice
+                path = Files.createTempFile("gymtracker", ".script");
+                path.toFile().deleteOnExit();
+                Files.copy(System.in, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        catch (IOException e) {
+            System.out.println("Unable to read script: " + e.getMessage());
+            return;
+        }
+        long started = System.nanoTime();
+        Script runner = new Script(athletes);
+        int commands = runner.run(path);
+        if (commands >= 0) {
+            double seconds = (System.nanoTime() - started) / 1e9;
+            System.err.printf("Ran %d commands in %.2f s (%.0f commands/s), %d failed.%n",
+                commands, seconds, commands / seconds, runner.failedCommands());
+        }
     }
 
     /**
@@ -109,7 +326,7 @@ public class App {
      * @param input: exercise input as a string
      * @return the created exercise object
      */
-    private static Exercise exerciseFromInput(String input) {
+    static Exercise exerciseFromInput(String input) {
         try {
             String[] attributes = input.split(";");
             Exercise newExercise = new Exercise();
@@ -130,14 +347,19 @@ public class App {
      * @param input: set input as a string
      * @return the created set object
      */
-    private static Set setFromInput(String input) {
+    static Set setFromInput(String input) {
         try {
             String[] attributes = input.split(";");
             Set newSet = new Set();
             newSet.date = attributes[0];
+            newSet.day = Set.parseDate(attributes[0]);
             newSet.exercise = attributes[1];
             newSet.weight = Float.parseFloat(attributes[2]);
             newSet.reps = Integer.parseInt(attributes[3]);
+            if (newSet.reps < 0 || newSet.reps > Set.MAX_REPS) {
+                System.out.println("Reps must be between 0 and " + Set.MAX_REPS + ".");
+                return null;
+            }
             return newSet;
         }
         catch(Exception e) {
@@ -196,29 +418,33 @@ public class App {
     }
 
     /**
-     * handles commands starting with "print"
-     * @param input: command split by spaces
-     * @param data: for accessing database
+     * handles commands starting with "print". The arguments are checked
+     * before anything is printed, so a command can be checked without data.
+     * @param input: command split by spaces, without paging options
+     * @return prints a page of the command for given data and returns the next page,
+     * or null if the arguments are not valid
      */
-    private static void printFromInput(String[] input, Data data) {
+    static BiFunction<Data, Page, Page> printFromInput(String[] input) {
         if (input.length == 0) {
             System.out.println("Too few arguments for print operation.");
         }
         else if (input[0].equals("exercises")) {
             if (input.length == 1) {
-                data.printAllExercises();
-            }
-            else if (input.length >= 2) {
-                data.printExercise(String.join(" ", Arrays.copyOfRange(input, 1, input.length)));
+                return Data::printAllExercises;
             }
+            String name = String.join(" ", Arrays.copyOfRange(input, 1, input.length));
+            return (data, page) -> {
+                data.printExercise(name);
+                return null;
+            };
         }
         else if (input[0].equals("sets")) {
             if (input.length == 1) {
-                data.printAllSets();
+                return Data::printAllSets;
             }
             else if (input[1].equals("date")) {
                 if (input.length == 3) {
-                    data.printSetsForDate(input[2]);
+                    return (data, page) -> data.printSetsForDate(input[2], page);
                 }
                 else if (input.length == 2) {
                     System.out.println("Please specify a date.");
@@ -227,13 +453,128 @@ public class App {
                     System.out.println("Date should be a single argument.");
                 }
             }
+            else if (input[1].equals("exercise")) {
+                if (input.length >= 3) {
+                    String name = String.join(" ", Arrays.copyOfRange(input, 2, input.length));
+                    return (data, page) -> data.printSetsForExercise(name, page);
+                }
+                else {
+                    System.out.println("Please specify an exercise.");
+                }
+            }
+            else if (input[1].equals("from")) {
+                if (input.length == 5 && input[3].equals("to")) {
+                    return (data, page) -> data.printSetsBetween(input[2], input[4], page);
+                }
+                else {
+                    System.out.println("Please specify dates as: from <date> to <date>.");
+                }
+            }
             else {
                 System.out.println("Incorrect format for print sets operation.");
             }
         }
+        else if (input[0].equals("stats")) {
+            if (input.length >= 2) {
+                String name = String.join(" ", Arrays.copyOfRange(input, 1, input.length));
+                return (data, page) -> {
+                    data.printStats(name);
+                    return null;
+                };
+            }
+            else {
+                System.out.println("Please specify an exercise.");
+            }
+        }
+        else if (input[0].equals("prs")) {
+            if (input.length >= 2) {
+                String name = String.join(" ", Arrays.copyOfRange(input, 1, input.length));
+                return (data, page) -> {
+                    data.printRecords(name);
+                    return null;
+                };
+            }
+            else {
+                System.out.println("Please specify an exercise.");
+            }
+        }
+        else if (input[0].equals("muscles")) {
+            if (input.length == 3 && input[1].equals("week")) {
+                return (data, page) -> {
+                    data.printMuscleVolume(input[2]);
+                    return null;
+                };
+            }
+            else {
+                System.out.println("Please specify a week as: week <date>.");
+            }
+        }
+        else if (input[0].equals("summary")) {
+            String period = input[input.length-1];
+            if (input.length >= 3 && (period.equals("weekly") || period.equals("monthly"))) {
+                String name = String.join(" ", Arrays.copyOfRange(input, 1, input.length-1));
+                return (data, page) -> {
+                    data.printSummary(name, period.equals("weekly"));
+                    return null;
+                };
+            }
+            else {
+                System.out.println("Please specify as: summary <exercise> weekly|monthly.");
+            }
+        }
         else {
-            System.out.println("Print is only possible for exercises or sets.");
+            System.out.println("Print is only possible for exercises, sets, stats, prs, muscles or summary.");
+        }
+        return null;
+    }
+
+    /**
+     * removes the paging options --limit and --offset from a print command
+     * @param input: command split by spaces
+     * @param page: receives the values of the options
+     * @return the command without the options or null if the options are not valid
+     */
+    static String[] pageFromInput(String[] input, Page page) {
+        ArrayList<String> rest = new ArrayList<>();
+        for (int i = 0; i < input.length; i++) {
+            if (!input[i].equals("--limit") && !input[i].equals("--offset")) {
+                rest.add(input[i]);
+                continue;
+            }
+            int value;
+            try {
+                value = Integer.parseInt(input[i+1]);
+            }
+            catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                System.out.println("Incorrect format for " + input[i] + ".");
+                return null;
+            }
+            if (value < 0 || (value == 0 && input[i].equals("--limit"))) {
+                System.out.println("Incorrect format for " + input[i] + ".");
+                return null;
+            }
+            if (input[i++].equals("--limit")) {
+                page.limit = value;
+            }
+            else {
+                page.offset = value;
+            }
         }
+        return rest.toArray(new String[0]);
+    }
+
+    /**
+     * prints a page of a listing and tells the user if there are more pages
+     * @param listing: prints a page and returns the next one
+     * @param page: the page to print
+     * @return the next page or null if the listing has no more rows
+     */
+    private static Page printPage(Function<Page, Page> listing, Page page) {
+        Page nextPage = listing.apply(page);
+        if (nextPage != null) {
+            System.out.println("Type \"more\" to see the next " + nextPage.limit + " rows.");
+        }
+        return nextPage;
     }
 
     /**
@@ -269,9 +610,11 @@ public class App {
             System.out.println("Too few arguments for delete operation.");
         }
         else if (input[0].equals("exercise")) {
-            if (input.length >= 2) {
+            boolean withSets = input[input.length-1].equals("--with-sets");
+            int nameEnd = withSets ? input.length-1 : input.length;
+            if (nameEnd >= 2) {
                 if (data.deleteExercise(
-                    String.join(" ", Arrays.copyOfRange(input, 2, input.length)))
+                    String.join(" ", Arrays.copyOfRange(input, 1, nameEnd)), withSets)
                 ) {
                     System.out.println("Exercise deleted succesfully.");
                 }
@@ -292,6 +635,17 @@ public class App {
                     System.out.println("Failed to delete set.");
                 }
             }
+            else if (input.length == 2) {
+                Integer id = idFromInput(input[1]);
+                if (id != null) {
+                    if (data.deleteSet(id)) {
+                        System.out.println("Set deleted succesfully.");
+                    }
+                    else {
+                        System.out.println("Failed to delete set.");
+                    }
+                }
+            }
             else {
                 System.out.println("Too many arguments for delete set operation.");
             }
@@ -308,7 +662,26 @@ public class App {
      * @param data: for accessing database
      */
     private static void modifyFromInput(String[] input, Scanner inputReader, Data data) {
-        if (input.length < 2) {
+        if (input.length >= 2 && input[0].equals("set")) {
+            Integer id = idFromInput(input[1]);
+            if (id == null) {
+                return;
+            }
+            String rawInput = String.join(" ", Arrays.copyOfRange(input, 2, input.length));
+            if (rawInput.isEmpty()) {
+                rawInput = saveInput(inputReader, SET_PROMPTS);
+            }
+            Set newValues = setFromInput(rawInput);
+            if (newValues != null) {
+                if (data.modifySet(id, newValues)) {
+                    System.out.println("Modifying set succesful.");
+                }
+                else {
+                    System.out.println("Modifying set failed.");
+                }
+            }
+        }
+        else if (input.length < 2) {
             System.out.println("Too few arguments for modify operation.");
         }
         else if (input.length > 2) {
@@ -350,7 +723,68 @@ public class App {
             }
         }
         else {
-            System.out.println("Modify is only possible for exercise.");
+            System.out.println("Modify is only possible for exercise or set.");
+        }
+    }
+
+    /**
+     * parses the id of a set given by the user
+     * @param input: the id as a string
+     * @return the id or null if the id is not valid
+     */
+    static Integer idFromInput(String input) {
+        try {
+            return Integer.parseInt(input);
+        }
+        catch (NumberFormatException e) {
+            System.out.println("Incorrect format for set id.");
+            return null;
+        }
+    }
+
+    /**
+     * handles commands starting with "convert"
+     * @param input: command split by spaces
+     * @param data: for accessing database
+     */
+    private static void convertFromInput(String[] input, Data data) {
+        if (input.length != 2 || !input[0].equals("sets")
+            || (!input[1].equals("binary") && !input[1].equals("text"))) {
+            System.out.println("Convert is only possible as: convert sets binary|text.");
+            return;
+        }
+        if (data.convertSetSnapshots(input[1].equals("binary"))) {
+            System.out.println("Converting sets succesful.");
+        }
+        else {
+            System.out.println("Converting sets failed.");
+        }
+    }
+
+    /**
+     * handles commands starting with "import". The arguments and the file are
+     * checked before anything is imported, so a command can be checked without data.
+     * @param input: command split by spaces
+     * @return imports the file into given data and returns whether it was imported,
+     * or null if the arguments are not valid or the file cannot be read
+     */
+    static Predicate<Data> importFromInput(String[] input) {
+        boolean createExercises = input.length > 0 && input[input.length-1].equals("--create-exercises");
+        int fileEnd = createExercises ? input.length-1 : input.length;
+        if (fileEnd < 2 || (!input[0].equals("sets") && !input[0].equals("exercises"))
+            || (createExercises && !input[0].equals("sets"))) {
+            System.out.println(
+                "Import is only possible as: import exercises <file> or import sets <file> [--create-exercises].");
+            return null;
+        }
+        Path file = Path.of(String.join(" ", Arrays.copyOfRange(input, 1, fileEnd)));
+        if (!Files.isRegularFile(file) || !Files.isReadable(file)) {
+            System.out.println("Unable to read file: " + file);
+            return null;
+        }
+        if (input[0].equals("sets")) {
+            return data -> new CsvImport(data).importSets(file, createExercises);
         }
+        return data -> new CsvImport(data).importExercises(file);
     }
 }
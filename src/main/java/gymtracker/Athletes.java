@@ -0,0 +1,192 @@
+package gymtracker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Class for keeping the data of several athletes apart. Every athlete has a
+ * data directory, files and indexes of their own, so changes to different
+ * athletes never wait for each other. The data of an athlete is loaded when
+ * it is first used, and athletes that no session is using are unloaded in
+ * least recently used order when the loaded data grows over a memory budget.
+ */
+public class Athletes {
+    public final static String DEFAULT_ATHLETE = "default";
+
+    private final static String ATHLETE_DIRECTORY = "athletes";
+    private final static Pattern NAME_FORMAT = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private String directory;
+    private Durability durability;
+    private boolean parallelLoading;
+    private long memoryBudget;
+    private LinkedHashMap<String, Athlete> athletes;
+
+    /**
+     * Class for the loaded data of one athlete. The data is loaded and
+     * unloaded while holding the athlete's own lock.
+     */
+    private static class Athlete {
+        private String name;
+        private volatile Data data;
+        private int sessions;
+
+        private Athlete(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Constructor for the athletes saved under a directory
+     * @param directory: the data directory of the default athlete, other athletes are saved under it
+     * @param durability: when written data is flushed to the files
+     * @param parallelLoading: whether large files are parsed in parallel chunks
+     * @param memoryBudget: the memory in bytes that the data of unused athletes may take before it is unloaded
+     */
+    public Athletes(String directory, Durability durability, boolean parallelLoading, long memoryBudget) {
+        this.directory = directory;
+        this.durability = durability;
+        this.parallelLoading = parallelLoading;
+        this.memoryBudget = memoryBudget;
+        // access order keeps the least recently used athlete first
+        this.athletes = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * starts using the data of an athlete, loading it if needed.
+     * Every successful call must be paired with a call to release.
+     * @param name: the name of the athlete
+     * @return the data of the athlete or null if the name is not valid or the data cannot be opened
+     */
+    public Data use(String name) {
+        if (!NAME_FORMAT.matcher(name).matches()) {
+            System.out.println("Athlete names can only contain letters, numbers, - and _.");
+            return null;
+        }
+        Athlete athlete;
+        synchronized (this) {
+            athlete = athletes.computeIfAbsent(name, Athlete::new);
+            athlete.sessions++;
+        }
+        Data data;
+        synchronized (athlete) {
+            if (athlete.data == null) {
+                String athleteDirectory = directoryOf(name);
+                try {
+                    Files.createDirectories(Path.of(athleteDirectory));
+                    athlete.data = new Data(new FileHandler(durability, parallelLoading), athleteDirectory);
+                }
+                catch (IOException e) {
+                    System.err.println("Unable to open data of athlete " + name + ": " + e);
+                }
+            }
+            data = athlete.data;
+        }
+        if (data == null) {
+            release(name);
+            return null;
+        }
+        unloadOverBudget();
+        return data;
+    }
+
+    /**
+     * stops using the data of an athlete, so that it can be unloaded
+     * @param name: the name of the athlete
+     */
+    public void release(String name) {
+        synchronized (this) {
+            Athlete athlete = athletes.get(name);
+            if (athlete != null && athlete.sessions > 0) {
+                athlete.sessions--;
+            }
+        }
+        unloadOverBudget();
+    }
+
+    /**
+     * returns whether the data of an athlete is loaded
+     * @param name: the name of the athlete
+     * @return whether the data is in memory
+     */
+    public synchronized boolean isLoaded(String name) {
+        Athlete athlete = athletes.get(name);
+        return athlete != null && athlete.data != null;
+    }
+
+    /**
+     * closes the data of every loaded athlete before the program exits
+     */
+    public void close() {
+        ArrayList<Athlete> loaded;
+        synchronized (this) {
+            loaded = new ArrayList<>(athletes.values());
+        }
+        for (Athlete athlete : loaded) {
+            synchronized (athlete) {
+                if (athlete.data != null) {
+                    athlete.data.close();
+                    athlete.data = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * returns the data directory of an athlete
+     * @param name: the name of the athlete
+     * @return the path to the directory
+     */
+    private String directoryOf(String name) {
+        if (name.equals(DEFAULT_ATHLETE)) {
+            return directory;
+        }
+        return directory + "/" + ATHLETE_DIRECTORY + "/" + name;
+    }
+
+    /**
+     * unloads the least recently used athletes without sessions until the loaded data fits the memory budget
+     */
+    private void unloadOverBudget() {
+        ArrayList<Athlete> unused = new ArrayList<>();
+        synchronized (this) {
+            long memoryUse = 0;
+            for (Athlete athlete : athletes.values()) {
+                Data data = athlete.data;
+                if (data != null) {
+                    memoryUse += data.memoryUse();
+                }
+            }
+            // iterating does not count as access, so the map stays in least recently used order
+            for (Map.Entry<String, Athlete> entry : athletes.entrySet()) {
+                if (memoryUse <= memoryBudget) {
+                    break;
+                }
+                Athlete athlete = entry.getValue();
+                Data data = athlete.data;
+                if (athlete.sessions == 0 && data != null) {
+                    unused.add(athlete);
+                    memoryUse -= data.memoryUse();
+                }
+            }
+        }
+        for (Athlete athlete : unused) {
+            synchronized (athlete) {
+                synchronized (this) {
+                    // a session may have started using the athlete after it was chosen
+                    if (athlete.sessions > 0 || athlete.data == null) {
+                        continue;
+                    }
+                }
+                athlete.data.close();
+                athlete.data = null;
+                System.err.println("Unloaded data of athlete " + athlete.name + ".");
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package gymtracker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Class for reading and writing sets in a fixed width binary format.
+ * The file starts with a header of the format version and the part of
+ * the set log that the file covers, followed by one 18 byte record per
+ * set: set id, epoch day, exercise id, weight and reps. Version 1 files
+ * have 14 byte records without the set id.
+ */
+public class BinarySetFile {
+    private final static int MAGIC = 0x47545342; // "GTSB"
+    private final static int VERSION = 2;
+    private final static int HEADER_SIZE = 32;
+    private final static int RECORD_SIZE = 18;
+    private final static int VERSION_1_RECORD_SIZE = 14;
+    private final static int WRITE_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Interface for receiving the decoded sets of a file. Sets of version 1 files have id 0.
+     */
+    public interface RowConsumer {
+        void accept(int id, int day, int exercise, float weight, int reps);
+    }
+
+    /**
+     * reads the header of a binary set file
+     * @param fileName: path to the file
+     * @return the generation and the byte position of the log that the file
+     * covers, or null if there is no readable file
+     */
+    public static long[] readHeader(String fileName) {
+        try (FileChannel channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                continue;
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                return null;
+            }
+            int version = header.getInt();
+            if (version != VERSION && version != 1) {
+                System.err.println("Unsupported version in binary set file " + fileName + ".");
+                return null;
+            }
+            return new long[] {header.getLong(), header.getLong()};
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * reads all sets of a binary set file by mapping it into memory
+     * @param fileName: path to the file
+     * @param consumer: receives the sets in file order
+     * @return whether the operation succeeded
+     */
+    public static boolean read(String fileName, RowConsumer consumer) {
+        try (FileChannel channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            int version = header.getInt(4);
+            if (header.getInt(0) != MAGIC || (version != VERSION && version != 1)) {
+                System.err.println("Incorrect header in binary set file " + fileName + ".");
+                return false;
+            }
+            boolean hasIds = version == VERSION;
+            int recordSize = hasIds ? RECORD_SIZE : VERSION_1_RECORD_SIZE;
+            int recordsPerMap = (1 << 30) / recordSize;
+            long count = header.getLong(24);
+            if (HEADER_SIZE + count * recordSize > channel.size()) {
+                System.err.println("Binary set file " + fileName + " is incomplete.");
+                return false;
+            }
+            for (long first = 0; first < count; first += recordsPerMap) {
+                int records = (int) Math.min(recordsPerMap, count - first);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_SIZE + first * recordSize, (long) records * recordSize);
+                for (int i = 0; i < records; i++) {
+                    int id = hasIds ? buffer.getInt() : 0;
+                    consumer.accept(id, buffer.getInt(), buffer.getInt(), buffer.getFloat(), buffer.getChar());
+                }
+            }
+            return true;
+        }
+        catch (IOException e) {
+            System.err.println("Unable to read file: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * writes sets to a new binary set file
+     * @param fileName: path to the file
+     * @param generation: the generation of the set log that the file covers
+     * @param logPosition: the byte position up to which the file covers the set log
+     * @param sets: the sets to be written
+     * @return whether the operation succeeded
+     */
+    public static boolean write(String fileName, long generation, long logPosition, SetStore sets) {
+        try (FileChannel channel = FileChannel.open(Path.of(fileName), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(generation).putLong(logPosition).putLong(sets.count());
+            for (int row = 0; row < sets.size(); row++) {
+                if (sets.isDeleted(row)) {
+                    continue;
+                }
+                if (buffer.remaining() < RECORD_SIZE) {
+                    writeBuffer(channel, buffer);
+                }
+                int reps = sets.reps(row);
+                if (reps < 0 || reps > Set.MAX_REPS) {
+                    System.err.println("Reps out of range for binary set file: " + reps);
+                    return false;
+                }
+                buffer.putInt(sets.id(row)).putInt(sets.day(row)).putInt(sets.exercise(row))
+                    .putFloat(sets.weight(row)).putChar((char) reps);
+            }
+            writeBuffer(channel, buffer);
+            channel.force(true);
+            return true;
+        }
+        catch (IOException e) {
+            System.err.println("Unable to write to file: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * writes the contents of a buffer to a file and empties the buffer
+     * @param channel: the file
+     * @param buffer: the buffer
+     * @throws IOException, if writing fails
+     */
+    private static void writeBuffer(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
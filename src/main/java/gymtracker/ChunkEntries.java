@@ -0,0 +1,65 @@
+package gymtracker;
+
+import java.util.ArrayList;
+
+/**
+ * Class for collecting the entries of one chunk of a log file so that they
+ * can be parsed ahead of time and passed on later in file order
+ * @param <T>: the type of the records in the log
+ */
+class ChunkEntries<T> implements LogReplay<T> {
+    private final static Object CLEAR = new Object();
+
+    private ArrayList<Object> entries;
+
+    public ChunkEntries() {
+        this.entries = new ArrayList<>();
+    }
+
+    /**
+     * Class for a delete entry of the log
+     */
+    private static class Delete {
+        private String key;
+
+        private Delete(String key) {
+            this.key = key;
+        }
+    }
+
+    @Override
+    public void put(T record) {
+        entries.add(record);
+    }
+
+    @Override
+    public void delete(String key) {
+        entries.add(new Delete(key));
+    }
+
+    @Override
+    public void clear() {
+        entries.add(CLEAR);
+    }
+
+    /**
+     * passes the collected entries on in the order they were read
+     * @param replay: receives the entries
+     * @return the number of entries passed on
+     */
+    @SuppressWarnings("unchecked")
+    public int replayTo(LogReplay<T> replay) {
+        for (Object entry : entries) {
+            if (entry == CLEAR) {
+                replay.clear();
+            }
+            else if (entry instanceof Delete) {
+                replay.delete(((Delete) entry).key);
+            }
+            else {
+                replay.put((T) entry);
+            }
+        }
+        return entries.size();
+    }
+}
@@ -0,0 +1,89 @@
+package gymtracker;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Class for compacting log files in the background.
+ * A compaction writes a snapshot of the current state next to the log and
+ * then cuts the part of the log that the snapshot covers.
+ */
+public class Compactor {
+    private FileHandler files;
+    private ExecutorService executor;
+
+    /**
+     * Constructor that starts the background thread for compactions
+     * @param files: for file operations
+     */
+    public Compactor(FileHandler files) {
+        this.files = files;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * starts compacting a log in the background. The state to be written must
+     * already be copied, and logPosition must be the size of the log at the
+     * moment the copy was taken.
+     * @param logPath: path to the log file
+     * @param snapshotPath: path to the snapshot file
+     * @param generation: the current generation of the log
+     * @param logPosition: the byte position of the log that the copied state covers
+     * @param snapshotWriter: writes the copied state with its header to the given path
+     * @return whether the compaction succeeded, once it has finished
+     */
+    public Future<Boolean> compact(String logPath, String snapshotPath, long generation,
+            long logPosition, Predicate<String> snapshotWriter) {
+        return executor.submit(() -> {
+            String tempPath = snapshotPath + ".tmp";
+            if (!snapshotWriter.test(tempPath)
+                || !files.replaceFile(tempPath, snapshotPath)) {
+                System.err.println("Unable to write snapshot " + snapshotPath + ".");
+                return false;
+            }
+            return files.truncateLog(logPath, generation, logPosition);
+        });
+    }
+
+    /**
+     * starts compacting a log in the background with a snapshot that is made
+     * of several files. The writer must replace the files so that the old
+     * snapshot stays valid until the new one is complete.
+     * @param logPath: path to the log file
+     * @param generation: the current generation of the log
+     * @param logPosition: the byte position of the log that the copied state covers
+     * @param snapshotWriter: writes the copied state
+     * @return whether the compaction succeeded, once it has finished
+     */
+    public Future<Boolean> compact(String logPath, long generation, long logPosition,
+            BooleanSupplier snapshotWriter) {
+        return executor.submit(() -> {
+            if (!snapshotWriter.getAsBoolean()) {
+                System.err.println("Unable to write snapshot of " + logPath + ".");
+                return false;
+            }
+            return files.truncateLog(logPath, generation, logPosition);
+        });
+    }
+
+    /**
+     * waits for running compactions to finish and stops the background thread
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
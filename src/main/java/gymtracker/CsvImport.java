@@ -0,0 +1,257 @@
+package gymtracker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Class for importing sets and exercises from CSV files exported by other
+ * trackers. The file is read in batches of rows, and every batch is added
+ * to the data and written to the files at once, so the memory used does
+ * not grow with the size of the file. Sets are given as
+ * date,exercise,weight,reps and exercises as name,primary muscles,secondary
+ * muscles,type with the muscles separated by semicolons. Fields can be
+ * quoted, and a first row of column names is skipped.
+ */
+public class CsvImport {
+    private final static int BATCH_SIZE = 10000;
+    private final static int REPORTED_REJECTIONS = 10;
+
+    private Data data;
+    private int imported;
+    private int rejected;
+
+    /**
+     * Constructor for importing into the data of an athlete
+     * @param data: the data to import into
+     */
+    public CsvImport(Data data) {
+        this.data = data;
+    }
+
+    /**
+     * imports sets from a CSV file of date,exercise,weight,reps rows
+     * @param path: path to the file
+     * @param createExercises: whether to create the exercises that do not exist
+     * @return whether the file could be read and written to the data
+     */
+    public boolean importSets(Path path, boolean createExercises) {
+        return importRows(path, "sets", "date", this::setFromRow,
+            sets -> data.addSets(sets, createExercises), "no exercise with given name");
+    }
+
+    /**
+     * imports exercises from a CSV file of name,primary muscles,secondary muscles,type rows
+     * @param path: path to the file
+     * @return whether the file could be read and written to the data
+     */
+    public boolean importExercises(Path path) {
+        return importRows(path, "exercises", "name", this::exerciseFromRow,
+            data::addExercises, "exercise with given name already exists");
+    }
+
+    /**
+     * returns the number of rows imported by the last import
+     * @return the number of rows
+     */
+    public int imported() {
+        return imported;
+    }
+
+    /**
+     * returns the number of rows rejected by the last import
+     * @return the number of rows
+     */
+    public int rejected() {
+        return rejected;
+    }
+
+    /**
+     * reads a CSV file in batches, adding each batch to the data
+     * @param <T>: the type of the imported records
+     * @param path: path to the file
+     * @param kind: what is imported, for the report
+     * @param firstColumn: the name of the first column, for recognizing a row of column names
+     * @param parser: creates a record from the fields of a row, or returns null if they are not valid
+     * @param adder: adds a batch of records and returns the positions of the skipped records
+     * @param skipReason: why the data skips a record, for the report
+     * @return whether the file could be read and written to the data
+     */
+    private <T> boolean importRows(Path path, String kind, String firstColumn, Function<String[], T> parser,
+            Function<List<T>, BitSet> adder, String skipReason) {
+        imported = 0;
+        rejected = 0;
+        long started = System.nanoTime();
+        ArrayList<T> batch = new ArrayList<>(BATCH_SIZE);
+        IntList batchLines = new IntList();
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = parseRow(line);
+                if (lineNumber == 1 && fields != null && fields[0].trim().equalsIgnoreCase(firstColumn)) {
+                    continue;
+                }
+                T record = fields != null ? parser.apply(fields) : null;
+                if (record == null) {
+                    reject(lineNumber, "incorrect format");
+                    continue;
+                }
+                batch.add(record);
+                batchLines.add(lineNumber);
+                if (batch.size() == BATCH_SIZE && !addBatch(batch, batchLines, adder, skipReason)) {
+                    return false;
+                }
+            }
+            if (!batch.isEmpty() && !addBatch(batch, batchLines, adder, skipReason)) {
+                return false;
+            }
+        }
+        catch (IOException e) {
+            System.out.println("Unable to read file: " + e.getMessage());
+            return false;
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("Imported %d %s in %.2f s (%.0f rows/s), %d rows rejected.%n",
+            imported, kind, seconds, (imported + rejected) / seconds, rejected);
+        return true;
+    }
+
+    /**
+     * adds a batch of records to the data and empties the batch
+     * @param <T>: the type of the records
+     * @param batch: the records
+     * @param batchLines: the line of each record in the file
+     * @param adder: adds the records and returns the positions of the skipped records
+     * @param skipReason: why the data skips a record, for the report
+     * @return whether the records were written to the files
+     */
+    private <T> boolean addBatch(ArrayList<T> batch, IntList batchLines, Function<List<T>, BitSet> adder,
+            String skipReason) {
+        BitSet skipped = adder.apply(batch);
+        if (skipped == null) {
+            System.out.println("Unable to write imported rows, stopped after " + imported + " rows.");
+            return false;
+        }
+        for (int i = skipped.nextSetBit(0); i >= 0; i = skipped.nextSetBit(i + 1)) {
+            reject(batchLines.get(i), skipReason);
+        }
+        imported += batch.size() - skipped.cardinality();
+        batch.clear();
+        batchLines.clear();
+        return true;
+    }
+
+    /**
+     * counts a rejected row and reports the first few of them
+     * @param lineNumber: the line of the row in the file
+     * @param reason: why the row was rejected
+     */
+    private void reject(int lineNumber, String reason) {
+        if (++rejected <= REPORTED_REJECTIONS) {
+            System.out.println("Rejected line " + lineNumber + ": " + reason + ".");
+        }
+    }
+
+    /**
+     * creates a set from the fields of a row
+     * @param fields: date, exercise, weight and reps
+     * @return the set or null if the fields are not valid
+     */
+    private Set setFromRow(String[] fields) {
+        if (fields.length != 4) {
+            return null;
+        }
+        try {
+            Set set = new Set();
+            set.day = Set.parseDate(fields[0].trim());
+            set.date = set.day.toString();
+            set.exercise = fields[1].trim();
+            set.weight = Float.parseFloat(fields[2].trim());
+            set.reps = Integer.parseInt(fields[3].trim());
+            return set.exercise.isEmpty() || set.reps < 0 || set.reps > Set.MAX_REPS ? null : set;
+        }
+        catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * creates an exercise from the fields of a row
+     * @param fields: name, primary muscles, secondary muscles and type
+     * @return the exercise or null if the fields are not valid
+     */
+    private Exercise exerciseFromRow(String[] fields) {
+        if (fields.length != 4 || fields[0].isBlank()) {
+            return null;
+        }
+        Exercise exercise = new Exercise();
+        exercise.name = fields[0].trim();
+        exercise.primaryMuscles = musclesFromField(fields[1]);
+        exercise.secondaryMuscles = musclesFromField(fields[2]);
+        exercise.type = fields[3].trim();
+        return exercise;
+    }
+
+    /**
+     * splits a field of muscles separated by semicolons
+     * @param field: the field
+     * @return the muscles
+     */
+    private ArrayList<String> musclesFromField(String field) {
+        ArrayList<String> muscles = new ArrayList<>();
+        for (String muscle : field.split(";")) {
+            if (!muscle.isBlank()) {
+                muscles.add(muscle.trim());
+            }
+        }
+        return muscles;
+    }
+
+    /**
+     * splits a row of a CSV file into fields. A quoted field can contain
+     * commas, and two quotes in it stand for one quote.
+     * @param line: the row
+     * @return the fields or null if a quote is not closed
+     */
+    private static String[] parseRow(String line) {
+        if (line.indexOf('"') < 0) {
+            return line.split(",", -1);
+        }
+        ArrayList<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted && c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                field.append('"');
+                i++;
+            }
+            else if (c == '"') {
+                quoted = !quoted;
+            }
+            else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            }
+            else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+}
@@ -1,30 +1,400 @@
 package gymtracker;
 
 import java.text.DecimalFormat;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 /**
- * Class for data storage and logic
+ * Class for data storage and logic.
+ * Reads can run in parallel from several threads. Changes are applied one
+ * at a time and written to the files after the in-memory state has changed.
  */
 public class Data {
-    private final String EXERCISE_PATH = "src/main/resources/exercises.txt";
-    private final String SET_PATH = "src/main/resources/sets.txt";
+    public final static String DEFAULT_DIRECTORY = "src/main/resources";
+
+    private final String EXERCISE_PATH;
+    private final String SET_PATH;
+    private final String EXERCISE_SNAPSHOT_PATH;
+    private final String LEGACY_SET_SNAPSHOT_PATH;
+    private final String LEGACY_SET_BINARY_SNAPSHOT_PATH;
+    private final String ROLLUP_PATH;
+    private final int COMPACTION_THRESHOLD = 10000;
+    private final String EXERCISE_KEY = "exercise:";
+    private final int EXERCISE_BYTES = 512;
+    private final int INDEXED_ROW_BYTES = 8;
+    private final static ThreadLocal<PagedOutput> OUTPUT = ThreadLocal.withInitial(PagedOutput::new);
 
     private FileHandler files;
-    private ArrayList<Exercise> exerciseList;
-    private ArrayList<Set> setList;
+    private ReentrantReadWriteLock lock;
+    private ReentrantLock writeOrder;
+    private Compactor compactor;
+    private int exerciseLogEntries;
+    private int setLogEntries;
+    private Future<Boolean> exerciseCompaction;
+    private Future<Boolean> setCompaction;
+    private boolean batching;
+    private boolean filesUnreadable;
+    private boolean binarySetSnapshots;
+    private SetPartitions setPartitions;
+    private BitSet changedMonths;
+    private BitSet compactingMonths;
+    private LinkedHashMap<Integer, Exercise> exerciseList;
+    private HashMap<String, Exercise> exercisesByName;
+    private ExerciseDictionary exerciseNames;
+    private MuscleIndex muscleIndex;
+    private SetStore setList;
+    private int nextSetId;
+    private TreeMap<Integer, IntList> setsByDate;
+    private HashMap<Integer, IntList> setsByExercise;
+    private HashMap<Integer, ExerciseStats> statsByExercise;
+    private HashMap<Integer, PersonalRecords> recordsByExercise;
+    private Rollups rollups;
+    private boolean rollupsFromFile;
 
     /** 
      * Constructor that reads saved data from files
      */
     public Data() {
-        this.files = new FileHandler();
+        this(Durability.perRecord());
+    }
+
+    /** 
+     * Constructor that reads saved data from files
+     * @param durability: when written data is flushed to the files
+     */
+    public Data(Durability durability) {
+        this(new FileHandler(durability));
+    }
+
+    /** 
+     * Constructor that reads saved data from files
+     * @param files: for file operations
+     */
+    public Data(FileHandler files) {
+        this(files, DEFAULT_DIRECTORY);
+    }
+
+    /** 
+     * Constructor that reads saved data from the files of a directory
+     * @param files: for file operations
+     * @param directory: the directory of the data files
+     */
+    public Data(FileHandler files, String directory) {
+        this.EXERCISE_PATH = directory + "/exercises.txt";
+        this.SET_PATH = directory + "/sets.txt";
+        this.EXERCISE_SNAPSHOT_PATH = directory + "/exercises.snapshot.txt";
+        this.LEGACY_SET_SNAPSHOT_PATH = directory + "/sets.snapshot.txt";
+        this.LEGACY_SET_BINARY_SNAPSHOT_PATH = directory + "/sets.snapshot.bin";
+        this.ROLLUP_PATH = directory + "/sets.rollups.txt";
+        this.files = files;
+        this.lock = new ReentrantReadWriteLock();
+        this.writeOrder = new ReentrantLock();
+        this.compactor = new Compactor(files);
+
+        this.exerciseList = new LinkedHashMap<>();
+        this.exercisesByName = new HashMap<>();
+        this.exerciseNames = new ExerciseDictionary();
+        this.muscleIndex = new MuscleIndex();
+        ArrayList<Exercise> exercisesWithoutId = new ArrayList<>();
+        int exerciseEntries = loadLog(EXERCISE_PATH, EXERCISE_SNAPSHOT_PATH, Exercise.class, new LogReplay<>() {
+            @Override
+            public void put(Exercise exercise) {
+                if (exercise.id == 0) {
+                    exercisesWithoutId.add(exercise);
+                }
+                else {
+                    storeExercise(exercise);
+                }
+            }
+
+            @Override
+            public void delete(String key) {
+                removeExercise(Integer.parseInt(key));
+            }
+
+            @Override
+            public void clear() {
+                clearStoredExercises();
+            }
+        });
+        // exercises that could not be read would be left out of the next snapshot
+        this.filesUnreadable = exerciseEntries < 0;
+        this.exerciseLogEntries = Math.max(exerciseEntries, 0);
+        boolean exercisesMigrated = !exercisesWithoutId.isEmpty();
+        for (Exercise exercise : exercisesWithoutId) {
+            if (!exercisesByName.containsKey(exercise.name)) {
+                exercise.id = exerciseNames.idFor(exercise.name);
+                storeExercise(exercise);
+            }
+        }
+
+        this.setList = new SetStore();
+        this.nextSetId = 1;
+        this.setsByDate = new TreeMap<>();
+        this.setsByExercise = new HashMap<>();
+        this.statsByExercise = new HashMap<>();
+        this.recordsByExercise = new HashMap<>();
+        this.rollups = new Rollups();
+        boolean[] setsMigrated = {false};
+        LogReplay<Set> setReplay = new LogReplay<>() {
+            @Override
+            public void put(Set set) {
+                if (set.exerciseId == 0) {
+                    set.exerciseId = exerciseNames.idFor(set.exercise);
+                    setsMigrated[0] = true;
+                }
+                else {
+                    exerciseNames.reserve(set.exerciseId);
+                }
+                if (set.id == 0) {
+                    set.id = nextSetId;
+                    setsMigrated[0] = true;
+                }
+                int row = setList.rowOf(set.id);
+                if (row >= 0) {
+                    replaceSetAt(row, (int) set.day.toEpochDay(), set.exerciseId, set.weight, set.reps);
+                }
+                else if (setList.isEmpty() || set.id > setList.id(setList.size()-1)) {
+                    storeSet(set);
+                }
+            }
+
+            @Override
+            public void delete(String key) {
+                if (key != null && key.startsWith(EXERCISE_KEY)) {
+                    removeExerciseSets(Integer.parseInt(key.substring(EXERCISE_KEY.length())));
+                }
+                else if (key != null) {
+                    int row = setList.rowOf(Integer.parseInt(key));
+                    if (row >= 0) {
+                        removeSetAt(row);
+                    }
+                }
+                else if (!setList.isEmpty()) {
+                    removeSetAt(setList.size()-1);
+                }
+            }
+
+            @Override
+            public void clear() {
+                clearStoredSets();
+            }
+        };
+        BinarySetFile.RowConsumer snapshotRow = (id, day, exercise, weight, reps) -> {
+            exerciseNames.reserve(exercise);
+            if (id == 0) {
+                id = nextSetId;
+                setsMigrated[0] = true;
+            }
+            storeRow(id, day, exercise, weight, reps);
+        };
+        this.setPartitions = new SetPartitions(files, directory);
+        this.changedMonths = new BitSet();
+        long[] textSnapshot = null;
+        long[] setSnapshot;
+        if (setPartitions.exist()) {
+            this.binarySetSnapshots = setPartitions.isBinary();
+            setSnapshot = setPartitions.header();
+        }
+        else {
+            // sets saved before partitioning are in a single snapshot file
+            textSnapshot = files.readSnapshotHeader(LEGACY_SET_SNAPSHOT_PATH);
+            long[] binarySnapshot = BinarySetFile.readHeader(LEGACY_SET_BINARY_SNAPSHOT_PATH);
+            this.binarySetSnapshots = binarySnapshot != null
+                && (textSnapshot == null || binarySnapshot[0] >= textSnapshot[0]);
+            setSnapshot = binarySetSnapshots ? binarySnapshot : textSnapshot;
+        }
+        // saved rollups can be used if they were written together with the snapshot
+        this.rollupsFromFile = setSnapshot != null
+            && Arrays.equals(setSnapshot, files.readSnapshotHeader(ROLLUP_PATH));
+        if (rollupsFromFile && files.replayLog(ROLLUP_PATH, 0, Rollup.class, rollups::load) < 0) {
+            // the rollups are counted again from the sets instead
+            this.rollups = new Rollups();
+            this.rollupsFromFile = false;
+        }
+        if (setPartitions.exist()) {
+            // ids of deleted sets that are no longer in any file are not given again
+            nextSetId = Math.max(nextSetId, setPartitions.nextId());
+            filesUnreadable |= !setPartitions.read(snapshotRow);
+            // the partitions already hold the sets loaded so far
+            changedMonths.clear();
+        }
+        else if (binarySetSnapshots) {
+            filesUnreadable |= !BinarySetFile.read(LEGACY_SET_BINARY_SNAPSHOT_PATH, snapshotRow);
+        }
+        else if (textSnapshot != null) {
+            filesUnreadable |= files.replayLog(LEGACY_SET_SNAPSHOT_PATH, 0, Set.class, setReplay) < 0;
+        }
+        this.rollupsFromFile = false;
+        int setEntries = replayTail(SET_PATH, setSnapshot, Set.class, setReplay);
+        filesUnreadable |= setEntries < 0;
+        this.setLogEntries = Math.max(setEntries, 0);
+        if (filesUnreadable) {
+            // a compaction would replace the files with what could be read, and
+            // new sets would get the ids of the sets that could not be read
+            System.err.println("Unable to read saved data. Changes are not saved until the files are fixed.");
+        }
+
+        // a log without any snapshot is split into partitions by its first compaction
+        boolean setsPartitioned = !setPartitions.exist() && setSnapshot != null;
+        if (exercisesMigrated || setsMigrated[0] || setsPartitioned) {
+            if (compact(true)) {
+                if (exercisesMigrated || setsMigrated[0]) {
+                    System.out.println("Saved data was converted to use exercise and set ids.");
+                }
+                if (setsPartitioned) {
+                    files.deleteFile(LEGACY_SET_SNAPSHOT_PATH);
+                    files.deleteFile(LEGACY_SET_BINARY_SNAPSHOT_PATH);
+                    System.out.println("Saved sets were split into monthly partitions.");
+                }
+            }
+        }
+    }
+
+    /**
+     * compacts the saved data by writing snapshots of the current state
+     * and cutting the logs that they cover
+     * @param wait: whether to wait for the compaction to finish
+     * @return whether the compaction was started, or succeeded when waiting for it
+     */
+    public boolean compact(boolean wait) {
+        Future<Boolean> exercisesCompacted;
+        Future<Boolean> setsCompacted;
+        writeOrder.lock();
+        try {
+            if (!isWritable()) {
+                return false;
+            }
+            if (isRunning(exerciseCompaction) || isRunning(setCompaction)) {
+                System.out.println("Compaction is already running.");
+                return false;
+            }
+            exercisesCompacted = exerciseCompaction = compactExercises();
+            setsCompacted = setCompaction = compactSets();
+        }
+        finally {
+            writeOrder.unlock();
+        }
+        if (!wait) {
+            return true;
+        }
+        try {
+            return exercisesCompacted.get() & setsCompacted.get();
+        }
+        catch (Exception e) {
+            System.err.println("Compaction failed: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * switches the format of set snapshots between text and binary by
+     * compacting the sets of every month into the new format
+     * @param binary: whether to use the binary format
+     * @return whether the operation succeeded
+     */
+    public boolean convertSetSnapshots(boolean binary) {
+        Future<Boolean> setsCompacted;
+        writeOrder.lock();
+        try {
+            if (!isWritable()) {
+                return false;
+            }
+            if (isRunning(exerciseCompaction) || isRunning(setCompaction)) {
+                System.out.println("Compaction is already running.");
+                return false;
+            }
+            binarySetSnapshots = binary;
+            for (int day : setsByDate.keySet()) {
+                changedMonths.set(SetPartitions.monthOf(day));
+            }
+            setsCompacted = setCompaction = compactSets();
+        }
+        finally {
+            writeOrder.unlock();
+        }
+        try {
+            return setsCompacted.get();
+        }
+        catch (Exception e) {
+            System.err.println("Compaction failed: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * starts a batch of changes. Logs are not compacted during a batch,
+     * since the batch would keep writing over the compacted state.
+     */
+    public void beginBatch() {
+        writeOrder.lock();
+        try {
+            batching = true;
+        }
+        finally {
+            writeOrder.unlock();
+        }
+    }
+
+    /**
+     * ends a batch of changes and compacts the logs that grew too long during it
+     */
+    public void endBatch() {
+        writeOrder.lock();
+        try {
+            batching = false;
+            exerciseLogged(false);
+            setLogged(false);
+        }
+        finally {
+            writeOrder.unlock();
+        }
+    }
 
-        this.exerciseList = files.parseFile(EXERCISE_PATH, Exercise.class);
-        this.setList = files.parseFile(SET_PATH, Set.class);
+    /**
+     * waits for background work to finish before the program exits
+     */
+    public void close() {
+        writeOrder.lock();
+        try {
+            compactor.shutdown();
+            files.close();
+        }
+        finally {
+            writeOrder.unlock();
+        }
+    }
+
+    /**
+     * estimates the memory used by the saved data and its indexes
+     * @return the estimate in bytes
+     */
+    public long memoryUse() {
+        lock.readLock().lock();
+        try {
+            // every row is in the date index and the exercise index
+            return setList.memoryUse() + (long) setList.size() * INDEXED_ROW_BYTES
+                + (long) exerciseList.size() * EXERCISE_BYTES;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -33,42 +403,173 @@ public class Data {
      * @return whether the operation succeeded
      */
     public boolean addExercise(Exercise newExercise) {
-        Optional<Exercise> result = exerciseList.stream()
-            .filter(e -> e.name.equals(newExercise.name)).findAny();
-        if (result.isPresent()) {
-            System.out.println("Exercise with given name already exists.");
-            return false;
-        }
-        exerciseList.add(newExercise);
-        return files.writeToFile(EXERCISE_PATH, newExercise);
+        return change(() -> {
+            if (exercisesByName.containsKey(newExercise.name)) {
+                System.out.println("Exercise with given name already exists.");
+                return null;
+            }
+            newExercise.id = exerciseNames.idFor(newExercise.name);
+            storeExercise(newExercise);
+            return () -> exerciseLogged(files.writeToFile(EXERCISE_PATH, newExercise));
+        });
     }
 
     /**
-     * adds a new set to the database and writes its information to a file
+     * adds a new set to the database and writes its information to a file.
+     * Tells the user if the set is a personal record for its rep count.
      * @param newSet: the set to be added
      * @return whether the operation succeeded
      */
     public boolean addSet(Set newSet) {
-        Optional<Exercise> result = exerciseList.stream()
-            .filter(e -> e.name.equals(newSet.exercise)).findAny();
-        if (!result.isPresent()) {
-            System.out.println("No exercise with given name.");
-            return false;
-        }
-        setList.add(newSet);
-        return files.writeToFile(SET_PATH, newSet);
+        return change(() -> {
+            Exercise exercise = exercisesByName.get(newSet.exercise);
+            if (exercise == null) {
+                System.out.println("No exercise with given name.");
+                return null;
+            }
+            newSet.exerciseId = exercise.id;
+            newSet.id = nextSetId;
+            PersonalRecords records = recordsByExercise.get(exercise.id);
+            if (records != null && records.isRecord(newSet.weight, newSet.reps)) {
+                System.out.println("New personal record for " + newSet.reps + " reps!");
+            }
+            storeSet(newSet);
+            return () -> setLogged(files.writeToFile(SET_PATH, newSet));
+        });
+    }
+
+    /**
+     * adds many new exercises at once and writes them to the file in one write.
+     * Exercises with the name of an existing exercise are skipped.
+     * @param newExercises: the exercises to be added
+     * @return the positions of the skipped exercises in the list, or null if writing the file failed
+     */
+    public BitSet addExercises(List<Exercise> newExercises) {
+        BitSet skipped = new BitSet();
+        boolean written = change(() -> {
+            ArrayList<Exercise> added = new ArrayList<>();
+            for (int i = 0; i < newExercises.size(); i++) {
+                Exercise newExercise = newExercises.get(i);
+                if (exercisesByName.containsKey(newExercise.name)) {
+                    skipped.set(i);
+                    continue;
+                }
+                newExercise.id = exerciseNames.idFor(newExercise.name);
+                storeExercise(newExercise);
+                added.add(newExercise);
+            }
+            return () -> exerciseLogged(files.writeAllToFile(EXERCISE_PATH, added), added.size());
+        });
+        return written ? skipped : null;
+    }
+
+    /**
+     * adds many new sets at once and writes them to the files in one write per file.
+     * Sets of exercises that do not exist are skipped, or given a new exercise
+     * without muscles if createExercises is set.
+     * @param newSets: the sets to be added
+     * @param createExercises: whether to create the exercises that do not exist
+     * @return the positions of the skipped sets in the list, or null if writing the files failed
+     */
+    public BitSet addSets(List<Set> newSets, boolean createExercises) {
+        BitSet skipped = new BitSet();
+        boolean written = change(() -> {
+            ArrayList<Exercise> createdExercises = new ArrayList<>();
+            ArrayList<Set> added = new ArrayList<>();
+            for (int i = 0; i < newSets.size(); i++) {
+                Set newSet = newSets.get(i);
+                Exercise exercise = exercisesByName.get(newSet.exercise);
+                if (exercise == null && createExercises) {
+                    exercise = new Exercise();
+                    exercise.name = newSet.exercise;
+                    exercise.primaryMuscles = new ArrayList<>();
+                    exercise.secondaryMuscles = new ArrayList<>();
+                    exercise.type = "";
+                    exercise.id = exerciseNames.idFor(exercise.name);
+                    storeExercise(exercise);
+                    createdExercises.add(exercise);
+                }
+                if (exercise == null) {
+                    skipped.set(i);
+                    continue;
+                }
+                newSet.exerciseId = exercise.id;
+                newSet.id = nextSetId;
+                storeSet(newSet);
+                added.add(newSet);
+            }
+            return () -> (createdExercises.isEmpty()
+                    || exerciseLogged(files.writeAllToFile(EXERCISE_PATH, createdExercises), createdExercises.size()))
+                && setLogged(files.writeAllToFile(SET_PATH, added), added.size());
+        });
+        return written ? skipped : null;
+    }
+
+    /**
+     * replaces the date, exercise, weight and reps of a set with given id
+     * and writes the new values to a file
+     * @param id: the id of the set to be modified
+     * @param newValues: the new values of the set
+     * @return whether the operation succeeded
+     */
+    public boolean modifySet(int id, Set newValues) {
+        return change(() -> {
+            int row = setList.rowOf(id);
+            if (row < 0) {
+                System.out.println("No set with given id.");
+                return null;
+            }
+            Exercise exercise = exercisesByName.get(newValues.exercise);
+            if (exercise == null) {
+                System.out.println("No exercise with given name.");
+                return null;
+            }
+            newValues.id = id;
+            newValues.exerciseId = exercise.id;
+            replaceSetAt(row, (int) newValues.day.toEpochDay(), newValues.exerciseId,
+                newValues.weight, newValues.reps);
+            return () -> setLogged(files.writeToFile(SET_PATH, newValues));
+        });
     }
 
     /**
      * prints the name of every saved exercise
      */
     public void printAllExercises() {
-        if (exerciseList.isEmpty()) {
-            System.out.println("No exercises to print.");
-            return;
+        printAllExercises(Page.all());
+    }
+
+    /**
+     * prints the names of one page of the saved exercises. The cursor of
+     * the page counts the exercises printed before it.
+     * @param page: the part of the exercises to print
+     * @return the next page or null if there are no more exercises
+     */
+    public Page printAllExercises(Page page) {
+        lock.readLock().lock();
+        try {
+            if (exerciseList.isEmpty()) {
+                System.out.println("No exercises to print.");
+                return null;
+            }
+            PagedOutput output = OUTPUT.get();
+            output.start(page);
+            int position = 0;
+            for (Exercise exercise : exerciseList.values()) {
+                if (++position <= page.afterId) {
+                    continue;
+                }
+                if (output.startRow(0, position)) {
+                    output.append(exercise.name).endRow();
+                }
+                else if (output.isFull()) {
+                    break;
+                }
+            }
+            return output.finish();
         }
-        for (Exercise exercise : exerciseList) {
-            System.out.println(exercise);
+        finally {
+            lock.readLock().unlock();
         }
     }
 
@@ -76,12 +577,40 @@ public class Data {
      * prints the exercise and date of every set
      */
     public void printAllSets() {
-        if (setList.isEmpty()) {
-            System.out.println("No sets to print.");
-            return;
+        printAllSets(Page.all());
+    }
+
+    /**
+     * prints the exercise and date of one page of the sets
+     * @param page: the part of the sets to print
+     * @return the next page or null if there are no more sets
+     */
+    public Page printAllSets(Page page) {
+        lock.readLock().lock();
+        try {
+            if (setList.isEmpty()) {
+                System.out.println("No sets to print.");
+                return null;
+            }
+            PagedOutput output = OUTPUT.get();
+            output.start(page);
+            for (int row = setList.firstRowAfter(page.afterId); row < setList.size(); row++) {
+                if (setList.isDeleted(row)) {
+                    continue;
+                }
+                if (output.startRow(0, setList.id(row))) {
+                    output.append("#").append(setList.id(row)).append(" ")
+                        .append(exerciseNames.name(setList.exercise(row))).append(" ")
+                        .appendDate(setList.day(row)).endRow();
+                }
+                else if (output.isFull()) {
+                    break;
+                }
+            }
+            return output.finish();
         }
-        for (Set set : setList) {
-            System.out.println(set);
+        finally {
+            lock.readLock().unlock();
         }
     }
 
@@ -90,21 +619,25 @@ public class Data {
      * @param name: the name of the exercise to be printed
      */
     public void printExercise(String name) {
-        Optional<Exercise> result = exerciseList.stream()
-            .filter(e -> e.name.equals(name)).findAny();
-        if (!result.isPresent()) {
-            System.out.println("No such exercise.");
-            return;
+        lock.readLock().lock();
+        try {
+            Exercise exerciseToPrint = exercisesByName.get(name);
+            if (exerciseToPrint == null) {
+                System.out.println("No such exercise.");
+                return;
+            }
+            System.out.println("name: " + exerciseToPrint.name);
+            System.out.print("primary muscles:");
+            exerciseToPrint.primaryMuscles.forEach(m -> System.out.print(" " + m));
+            System.out.println("");
+            System.out.print("secondary muscles:");
+            exerciseToPrint.secondaryMuscles.forEach(m -> System.out.print(" " + m));
+            System.out.println("");
+            System.out.println("type: " + exerciseToPrint.type);
+        }
+        finally {
+            lock.readLock().unlock();
         }
-        Exercise exerciseToPrint = result.get();
-        System.out.println("name: " + exerciseToPrint.name);
-        System.out.print("primary muscles:");
-        exerciseToPrint.primaryMuscles.forEach(m -> System.out.print(" " + m));
-        System.out.println("");
-        System.out.print("secondary muscles:");
-        exerciseToPrint.secondaryMuscles.forEach(m -> System.out.print(" " + m));
-        System.out.println("");
-        System.out.println("type: " + exerciseToPrint.type);
     }
 
     /**
@@ -112,34 +645,331 @@ public class Data {
      * @param date: the date of the sets to be printed
      */
     public void printSetsForDate(String date) {
-        ArrayList<Set> setsToPrint = new ArrayList<>(
-            setList.stream().filter(s -> s.date.equals(date)).collect(Collectors.toList()));
-        if (setsToPrint.isEmpty()) {
-            System.out.println("No exercises for given date.");
-            return;
+        printSetsForDate(date, Page.all());
+    }
+
+    /**
+     * prints one page of the sets for a given date
+     * @param date: the date of the sets to be printed
+     * @param page: the part of the sets to print
+     * @return the next page or null if there are no more sets
+     */
+    public Page printSetsForDate(String date, Page page) {
+        lock.readLock().lock();
+        try {
+            LocalDate day = dateFromInput(date);
+            if (day == null) {
+                return null;
+            }
+            IntList rowsToPrint = setsByDate.get((int) day.toEpochDay());
+            if (rowsToPrint == null) {
+                System.out.println("No exercises for given date.");
+                return null;
+            }
+            PagedOutput output = OUTPUT.get();
+            output.start(page);
+            for (int i = firstAfter(rowsToPrint, page.afterId); i < rowsToPrint.size(); i++) {
+                int row = rowsToPrint.get(i);
+                if (output.startRow(0, setList.id(row))) {
+                    output.append("#").append(setList.id(row)).append(" ")
+                        .append(exerciseNames.name(setList.exercise(row))).append(", ")
+                        .appendWeight(setList.weight(row)).append(" kg, ")
+                        .append(setList.reps(row)).append(" reps").endRow();
+                }
+                else if (output.isFull()) {
+                    break;
+                }
+            }
+            return output.finish();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * prints the weekly or monthly totals of an exercise with given name
+     * @param name: the name of the exercise
+     * @param weekly: whether to print weekly totals instead of monthly totals
+     */
+    public void printSummary(String name, boolean weekly) {
+        lock.readLock().lock();
+        try {
+            Exercise exercise = exercisesByName.get(name);
+            if (exercise == null) {
+                System.out.println("No such exercise.");
+                return;
+            }
+            Collection<Rollup> rollupsToPrint = weekly ? rollups.weekly(exercise.id) : rollups.monthly(exercise.id);
+            if (rollupsToPrint.isEmpty()) {
+                System.out.println("No sets for given exercise.");
+                return;
+            }
+            DecimalFormat format = new DecimalFormat("0.##");
+            for (Rollup rollup : rollupsToPrint) {
+                System.out.println(
+                    (weekly ? rollup.start : rollup.start.substring(0, 7)) + ": " +
+                    rollup.sets + " sets, " +
+                    format.format(rollup.volume / 100.0) + " kg total, " +
+                    format.format(rollup.maxWeight) + " kg max"
+                );
+            }
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * prints all the sets between two dates, both ends included
+     * @param from: the first date of the range
+     * @param to: the last date of the range
+     */
+    public void printSetsBetween(String from, String to) {
+        printSetsBetween(from, to, Page.all());
+    }
+
+    /**
+     * prints one page of the sets between two dates, both ends included
+     * @param from: the first date of the range
+     * @param to: the last date of the range
+     * @param page: the part of the sets to print
+     * @return the next page or null if there are no more sets
+     */
+    public Page printSetsBetween(String from, String to, Page page) {
+        lock.readLock().lock();
+        try {
+            LocalDate firstDay = dateFromInput(from);
+            LocalDate lastDay = dateFromInput(to);
+            if (firstDay == null || lastDay == null) {
+                return null;
+            }
+            if (firstDay.isAfter(lastDay)) {
+                System.out.println("Start date should not be after end date.");
+                return null;
+            }
+            NavigableMap<Integer, IntList> rowsToPrint = setsByDate.subMap(
+                (int) firstDay.toEpochDay(), true, (int) lastDay.toEpochDay(), true);
+            if (rowsToPrint.isEmpty()) {
+                System.out.println("No exercises for given dates.");
+                return null;
+            }
+            PagedOutput output = OUTPUT.get();
+            output.start(page);
+            // the cursor of the page is the date and id of the last set printed before it
+            NavigableMap<Integer, IntList> rowsAfterCursor = page.afterDay >= rowsToPrint.firstKey()
+                ? rowsToPrint.tailMap(page.afterDay, true) : rowsToPrint;
+            for (var entry : rowsAfterCursor.entrySet()) {
+                int day = entry.getKey();
+                IntList rows = entry.getValue();
+                int first = day == page.afterDay ? firstAfter(rows, page.afterId) : 0;
+                for (int i = first; i < rows.size() && !output.isFull(); i++) {
+                    int row = rows.get(i);
+                    if (output.startRow(day, setList.id(row))) {
+                        output.appendDate(day).append(": #").append(setList.id(row)).append(" ")
+                            .append(exerciseNames.name(setList.exercise(row))).append(", ")
+                            .appendWeight(setList.weight(row)).append(" kg, ")
+                            .append(setList.reps(row)).append(" reps").endRow();
+                    }
+                }
+                if (output.isFull()) {
+                    break;
+                }
+            }
+            return output.finish();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * prints the statistics of an exercise with given name
+     * @param name: the name of the exercise
+     */
+    public void printStats(String name) {
+        lock.readLock().lock();
+        try {
+            Exercise exercise = exercisesByName.get(name);
+            if (exercise == null) {
+                System.out.println("No such exercise.");
+                return;
+            }
+            ExerciseStats stats = statsByExercise.get(exercise.id);
+            if (stats == null) {
+                System.out.println("No sets for given exercise.");
+                return;
+            }
+            DecimalFormat format = new DecimalFormat("0.##");
+            System.out.println("sets: " + stats.setCount());
+            System.out.println("total volume: " + format.format(stats.volume()) + " kg");
+            System.out.println("max weight: " + format.format(stats.maxWeight()) + " kg");
+            System.out.println("best estimated 1RM: " + format.format(stats.bestOneRepMax()) + " kg");
+            System.out.println("last session: " + LocalDate.ofEpochDay(stats.lastDay()));
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * prints the heaviest weight lifted for each rep count of an exercise with given name
+     * @param name: the name of the exercise
+     */
+    public void printRecords(String name) {
+        lock.readLock().lock();
+        try {
+            Exercise exercise = exercisesByName.get(name);
+            if (exercise == null) {
+                System.out.println("No such exercise.");
+                return;
+            }
+            PersonalRecords records = recordsByExercise.get(exercise.id);
+            if (records == null) {
+                System.out.println("No sets for given exercise.");
+                return;
+            }
+            DecimalFormat format = new DecimalFormat("0.##");
+            for (var entry : records.bestWeights().entrySet()) {
+                System.out.println(entry.getKey() + " reps: " + format.format(entry.getValue()) + " kg");
+            }
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * prints the sets and volume for each muscle during the week of a given date.
+     * Only the sets of that week are read, and the exercises of each muscle
+     * come from the muscle index.
+     * @param date: any date of the week, which starts on Monday
+     */
+    public void printMuscleVolume(String date) {
+        lock.readLock().lock();
+        try {
+            LocalDate day = dateFromInput(date);
+            if (day == null) {
+                return;
+            }
+            LocalDate monday = day.with(DayOfWeek.MONDAY);
+            HashMap<Integer, long[]> totalsByExercise = new HashMap<>();
+            for (IntList rows : setsByDate.subMap(
+                    (int) monday.toEpochDay(), true, (int) monday.toEpochDay() + 6, true).values()) {
+                for (int i = 0; i < rows.size(); i++) {
+                    int row = rows.get(i);
+                    long[] totals = totalsByExercise.computeIfAbsent(setList.exercise(row), id -> new long[2]);
+                    totals[0]++;
+                    totals[1] += Math.round(setList.weight(row) * 100) * (long) setList.reps(row);
+                }
+            }
+            if (totalsByExercise.isEmpty()) {
+                System.out.println("No exercises for given week.");
+                return;
+            }
+            DecimalFormat format = new DecimalFormat("0.##");
+            System.out.println("Week of " + monday + ":");
+            for (String muscle : muscleIndex.muscles()) {
+                long[] primary = sumTotals(totalsByExercise, muscleIndex.primaryExercises(muscle));
+                long[] secondary = sumTotals(totalsByExercise, muscleIndex.secondaryExercises(muscle));
+                if (primary[0] == 0 && secondary[0] == 0) {
+                    continue;
+                }
+                System.out.println(
+                    muscle + ": " +
+                    primary[0] + " sets, " + format.format(primary[1] / 100.0) + " kg as primary; " +
+                    secondary[0] + " sets, " + format.format(secondary[1] / 100.0) + " kg as secondary"
+                );
+            }
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * prints all the sets of an exercise with given name in the order they were added.
+     * Sets of deleted exercises can be printed with the name the exercise had.
+     * @param name: the name of the exercise
+     */
+    public void printSetsForExercise(String name) {
+        printSetsForExercise(name, Page.all());
+    }
+
+    /**
+     * prints one page of the sets of an exercise with given name in the order they were added
+     * @param name: the name of the exercise
+     * @param page: the part of the sets to print
+     * @return the next page or null if there are no more sets
+     */
+    public Page printSetsForExercise(String name, Page page) {
+        lock.readLock().lock();
+        try {
+            Integer id = exerciseNames.id(name);
+            IntList rowsToPrint = id != null ? setsByExercise.get(id) : null;
+            if (rowsToPrint == null) {
+                System.out.println("No sets for given exercise.");
+                return null;
+            }
+            PagedOutput output = OUTPUT.get();
+            output.start(page);
+            for (int i = firstAfter(rowsToPrint, page.afterId); i < rowsToPrint.size(); i++) {
+                int row = rowsToPrint.get(i);
+                if (output.startRow(0, setList.id(row))) {
+                    output.appendDate(setList.day(row)).append(": #").append(setList.id(row)).append(" ")
+                        .appendWeight(setList.weight(row)).append(" kg, ")
+                        .append(setList.reps(row)).append(" reps").endRow();
+                }
+                else if (output.isFull()) {
+                    break;
+                }
+            }
+            return output.finish();
         }
-        DecimalFormat format = new DecimalFormat("0.##");
-        for (Set set : setsToPrint) {
-            System.out.println(
-                set.exercise + ", " +
-                format.format(set.weight) + " kg, " +
-                set.reps + " reps"
-            );
+        finally {
+            lock.readLock().unlock();
         }
     }
 
     /**
      * deletes an exercise with given name
      * @param name: the name of the exercise to be deleted
+     * @param withSets: whether to delete the sets of the exercise too
      * @return whether the operation succeeded
      */
-    public boolean deleteExercise(String name) {
-        Boolean wasDeleted = exerciseList.removeIf(e -> e.name.equals(name));
-        if (!wasDeleted) {
-            System.out.println("No such exercise.");
-            return false;
-        }
-        return rewriteExercises();
+    public boolean deleteExercise(String name, boolean withSets) {
+        return change(() -> {
+            Exercise exerciseToDelete = exercisesByName.get(name);
+            if (exerciseToDelete == null) {
+                System.out.println("No such exercise.");
+                return null;
+            }
+            String id = String.valueOf(exerciseToDelete.id);
+            removeExercise(exerciseToDelete.id);
+            if (!withSets || !setsByExercise.containsKey(exerciseToDelete.id)) {
+                return () -> exerciseLogged(files.writeDelete(EXERCISE_PATH, id));
+            }
+            removeExerciseSets(exerciseToDelete.id);
+            return () -> exerciseLogged(files.writeDelete(EXERCISE_PATH, id))
+                && setLogged(files.writeDelete(SET_PATH, EXERCISE_KEY + id));
+        });
+    }
+
+    /**
+     * deletes a set with given id
+     * @param id: the id of the set to be deleted
+     * @return whether the operation succeeded
+     */
+    public boolean deleteSet(int id) {
+        return change(() -> {
+            int row = setList.rowOf(id);
+            if (row < 0) {
+                System.out.println("No set with given id.");
+                return null;
+            }
+            removeSetAt(row);
+            return () -> setLogged(files.writeDelete(SET_PATH, String.valueOf(id)));
+        });
     }
 
     /**
@@ -147,32 +977,34 @@ public class Data {
      * @return whether the operation succeeded
      */
     public boolean deleteLastSet() {
-        if (setList.isEmpty()) {
-            System.out.println("No sets to delete.");
-            return false;
-        }
-        setList.remove(setList.size()-1);
-        return rewriteSets();
+        return change(() -> {
+            if (setList.isEmpty()) {
+                System.out.println("No sets to delete.");
+                return null;
+            }
+            removeSetAt(setList.size()-1);
+            return () -> setLogged(files.writeDelete(SET_PATH, null));
+        });
     }
 
     /**
      * clears all exercises from the database
      */
     public void clearExercises() {
-        exerciseList.clear();
-        if (!files.clearFile(EXERCISE_PATH)) {
-            System.out.println("Unable to clear file.");
-        }
+        change(() -> {
+            clearStoredExercises();
+            return () -> reportCleared(exerciseLogged(files.writeClear(EXERCISE_PATH)));
+        });
     }
 
     /**
      * clears all sets from the database
      */
     public void clearSets() {
-        setList.clear();
-        if (!files.clearFile(SET_PATH)) {
-            System.out.println("Unable to clear file.");
-        }
+        change(() -> {
+            clearStoredSets();
+            return () -> reportCleared(setLogged(files.writeClear(SET_PATH)));
+        });
     }
 
     /**
@@ -181,31 +1013,22 @@ public class Data {
      * @param newName: the new name of the exercise
      */
     public void modifyExerciseName(String oldName, String newName) {
-        Optional<Exercise> result = exerciseList.stream()
-            .filter(e -> e.name.equals(oldName)).findAny();
-        if (!result.isPresent()) {
-            System.out.println("No such exercise.");
-            return;
-        }
-        Exercise exerciseToModify = result.get();
-        exerciseToModify.name = newName;
-        for (Set set : setList) {
-            if (set.exercise.equals(oldName)) {
-                set.exercise = newName;
+        change(() -> {
+            Exercise exerciseToModify = exercisesByName.get(oldName);
+            if (exerciseToModify == null) {
+                System.out.println("No such exercise.");
+                return null;
             }
-        }
-        if (rewriteExercises()) {
-            System.out.println("Modifying exercise succesful.");
-        }
-        else {
-            System.out.println("Modifying exercises failed.");
-        }
-        if (rewriteSets()) {
-            System.out.println("Modifying sets succesful.");
-        }
-        else {
-            System.out.println("Modifying sets failed.");
-        }
+            if (exercisesByName.containsKey(newName)) {
+                System.out.println("Exercise with given name already exists.");
+                return null;
+            }
+            exercisesByName.remove(oldName);
+            exerciseToModify.name = newName;
+            exercisesByName.put(newName, exerciseToModify);
+            exerciseNames.put(exerciseToModify.id, newName);
+            return () -> reportModified(exerciseLogged(files.writeToFile(EXERCISE_PATH, exerciseToModify)));
+        });
     }
 
     /**
@@ -214,20 +1037,17 @@ public class Data {
      * @param newMuscles: the new list of primary muscles
      */
     public void modifyExercisePrimaryMuscles(String name, String[] newMuscles) {
-        Optional<Exercise> result = exerciseList.stream()
-            .filter(e -> e.name.equals(name)).findAny();
-        if (!result.isPresent()) {
-            System.out.println("No such exercise.");
-            return;
-        }
-        Exercise exerciseToModify = result.get();
-        exerciseToModify.primaryMuscles = new ArrayList<>(Arrays.asList(newMuscles));
-        if (rewriteExercises()) {
-            System.out.println("Modifying exercise succesful.");
-        }
-        else {
-            System.out.println("Modifying exercise failed.");
-        }
+        change(() -> {
+            Exercise exerciseToModify = exercisesByName.get(name);
+            if (exerciseToModify == null) {
+                System.out.println("No such exercise.");
+                return null;
+            }
+            muscleIndex.remove(exerciseToModify);
+            exerciseToModify.primaryMuscles = new ArrayList<>(Arrays.asList(newMuscles));
+            muscleIndex.add(exerciseToModify);
+            return () -> reportModified(exerciseLogged(files.writeToFile(EXERCISE_PATH, exerciseToModify)));
+        });
     }
 
     /**
@@ -236,20 +1056,17 @@ public class Data {
      * @param newMuscles: the new list of secondary muscles
      */
     public void modifyExerciseSecondaryMuscles(String name, String[] newMuscles) {
-        Optional<Exercise> result = exerciseList.stream()
-            .filter(e -> e.name.equals(name)).findAny();
-        if (!result.isPresent()) {
-            System.out.println("No such exercise.");
-            return;
-        }
-        Exercise exerciseToModify = result.get();
-        exerciseToModify.secondaryMuscles = new ArrayList<>(Arrays.asList(newMuscles));
-        if (rewriteExercises()) {
-            System.out.println("Modifying exercise succesful.");
-        }
-        else {
-            System.out.println("Modifying exercise failed.");
-        }
+        change(() -> {
+            Exercise exerciseToModify = exercisesByName.get(name);
+            if (exerciseToModify == null) {
+                System.out.println("No such exercise.");
+                return null;
+            }
+            muscleIndex.remove(exerciseToModify);
+            exerciseToModify.secondaryMuscles = new ArrayList<>(Arrays.asList(newMuscles));
+            muscleIndex.add(exerciseToModify);
+            return () -> reportModified(exerciseLogged(files.writeToFile(EXERCISE_PATH, exerciseToModify)));
+        });
     }
 
     /**
@@ -258,61 +1075,567 @@ public class Data {
      * @param newType: the new type of the exercise
      */
     public void modifyExerciseType(String name, String newType) {
-        Optional<Exercise> result = exerciseList.stream()
-            .filter(e -> e.name.equals(name)).findAny();
-        if (!result.isPresent()) {
-            System.out.println("No such exercise.");
-            return;
+        change(() -> {
+            Exercise exerciseToModify = exercisesByName.get(name);
+            if (exerciseToModify == null) {
+                System.out.println("No such exercise.");
+                return null;
+            }
+            exerciseToModify.type = newType;
+            return () -> reportModified(exerciseLogged(files.writeToFile(EXERCISE_PATH, exerciseToModify)));
+        });
+    }
+
+    /**
+     * applies a change to the data. Changes are applied one at a time so that
+     * the logs get them in the same order as the memory. Readers are blocked
+     * only while the in-memory state changes, not while the change is written
+     * to the files, and they see either all of a change or none of it.
+     * @param change: changes the in-memory state and returns what writes the change
+     * to the files, or returns null if nothing was changed
+     * @return whether the change was made and written
+     */
+    private boolean change(Supplier<BooleanSupplier> change) {
+        writeOrder.lock();
+        try {
+            if (!isWritable()) {
+                return false;
+            }
+            BooleanSupplier write;
+            lock.writeLock().lock();
+            try {
+                write = change.get();
+            }
+            finally {
+                lock.writeLock().unlock();
+            }
+            return write != null && write.getAsBoolean();
+        }
+        finally {
+            writeOrder.unlock();
+        }
+    }
+
+    /**
+     * tells the user if the data cannot be changed because saved data could not be read
+     * @return whether the data can be changed
+     */
+    private boolean isWritable() {
+        if (filesUnreadable) {
+            System.out.println("Saved data could not be read, so changes are not allowed.");
         }
-        Exercise exerciseToModify = result.get();
-        exerciseToModify.type = newType;
-        if (rewriteExercises()) {
+        return !filesUnreadable;
+    }
+
+    /**
+     * tells the user whether modifying an exercise was written to the file
+     * @param succeeded: whether writing succeeded
+     * @return whether writing succeeded
+     */
+    private boolean reportModified(boolean succeeded) {
+        if (succeeded) {
             System.out.println("Modifying exercise succesful.");
         }
         else {
             System.out.println("Modifying exercise failed.");
         }
+        return succeeded;
     }
 
     /**
-     * rewrites the database file based on the current state of the database
-     * @return whether the operation succeeded
+     * tells the user if clearing could not be written to the file
+     * @param succeeded: whether writing succeeded
+     * @return whether writing succeeded
      */
-    private boolean rewriteExercises() {
-        if (!files.clearFile(EXERCISE_PATH)) {
+    private boolean reportCleared(boolean succeeded) {
+        if (!succeeded) {
             System.out.println("Unable to clear file.");
-            return false;
         }
-        int failureCount = 0;
-        for (Exercise exercise : exerciseList) {
-            if (!files.writeToFile(EXERCISE_PATH, exercise)) {
-                failureCount++;
+        return succeeded;
+    }
+
+    /**
+     * adds an exercise to the catalog or replaces the exercise with the same id
+     * @param exercise: the exercise to be stored
+     */
+    private void storeExercise(Exercise exercise) {
+        Exercise oldExercise = exerciseList.put(exercise.id, exercise);
+        if (oldExercise != null) {
+            exercisesByName.remove(oldExercise.name, oldExercise);
+            muscleIndex.remove(oldExercise);
+        }
+        exercisesByName.put(exercise.name, exercise);
+        exerciseNames.put(exercise.id, exercise.name);
+        muscleIndex.add(exercise);
+    }
+
+    /**
+     * removes an exercise from the catalog, keeping its name in the dictionary
+     * for its sets but not for new exercises
+     * @param id: the id of the exercise to be removed
+     */
+    private void removeExercise(int id) {
+        Exercise exercise = exerciseList.remove(id);
+        if (exercise != null) {
+            exercisesByName.remove(exercise.name, exercise);
+            muscleIndex.remove(exercise);
+        }
+        exerciseNames.release(id);
+    }
+
+    /**
+     * removes every exercise from the catalog and the muscle index, keeping
+     * their names in the dictionary
+     */
+    private void clearStoredExercises() {
+        exerciseList.clear();
+        exercisesByName.clear();
+        muscleIndex.clear();
+        exerciseNames.releaseAll();
+    }
+
+    /**
+     * finds the heaviest set of an exercise between two dates from the date index
+     * @param exerciseId: the id of the exercise
+     * @param firstDay: the first day as an epoch day
+     * @param lastDay: the last day as an epoch day
+     * @return the heaviest weight or 0 if there are no sets
+     */
+    private float maxWeightBetween(int exerciseId, int firstDay, int lastDay) {
+        float maxWeight = 0;
+        for (IntList rows : setsByDate.subMap(firstDay, true, lastDay, true).values()) {
+            for (int i = 0; i < rows.size(); i++) {
+                int row = rows.get(i);
+                if (setList.exercise(row) == exerciseId) {
+                    maxWeight = Math.max(maxWeight, setList.weight(row));
+                }
             }
         }
-        if (failureCount > 0) {
-            System.out.println(failureCount + " exercises lost during operation.");
+        return maxWeight;
+    }
+
+    /**
+     * adds a set to the end of the set store and to the indexes
+     * @param set: the set to be stored
+     */
+    private void storeSet(Set set) {
+        storeRow(set.id, (int) set.day.toEpochDay(), set.exerciseId, set.weight, set.reps);
+    }
+
+    /**
+     * adds a set given as column values to the end of the set store and to the indexes
+     * @param id: the id of the set, larger than the id of any stored set
+     * @param day: the date of the set as an epoch day
+     * @param exerciseId: the id of the set's exercise
+     * @param weight: the weight of the set
+     * @param reps: the reps of the set
+     */
+    private void storeRow(int id, int day, int exerciseId, float weight, int reps) {
+        int row = setList.add(id, day, exerciseId, weight, reps);
+        nextSetId = Math.max(nextSetId, id + 1);
+        indexRow(row);
+    }
+
+    /**
+     * replaces the values of a stored set, keeping its id and row
+     * @param row: the row of the set in the set store
+     * @param day: the new date of the set as an epoch day
+     * @param exerciseId: the id of the set's new exercise
+     * @param weight: the new weight of the set
+     * @param reps: the new reps of the set
+     */
+    private void replaceSetAt(int row, int day, int exerciseId, float weight, int reps) {
+        unindexRow(row);
+        setList.set(row, day, exerciseId, weight, reps);
+        indexRow(row);
+    }
+
+    /**
+     * removes a set from the set store and the indexes
+     * @param row: the row of the set in the set store
+     */
+    private void removeSetAt(int row) {
+        unindexRow(row);
+        setList.remove(row);
+    }
+
+    /**
+     * adds a stored set to the date and exercise indexes, the statistics,
+     * the personal records and the rollups
+     * @param row: the row of the set in the set store
+     */
+    private void indexRow(int row) {
+        int day = setList.day(row);
+        int exerciseId = setList.exercise(row);
+        float weight = setList.weight(row);
+        int reps = setList.reps(row);
+        changedMonths.set(SetPartitions.monthOf(day));
+        setsByDate.computeIfAbsent(day, d -> new IntList()).addSorted(row);
+        setsByExercise.computeIfAbsent(exerciseId, id -> new IntList()).addSorted(row);
+        statsByExercise.computeIfAbsent(exerciseId, id -> new ExerciseStats()).add(day, weight, reps);
+        recordsByExercise.computeIfAbsent(exerciseId, id -> new PersonalRecords()).add(weight, reps);
+        if (!rollupsFromFile) {
+            rollups.add(day, exerciseId, weight, reps);
         }
-        return true;
     }
 
     /**
-     * rewrites the database file based on the current state of the database
-     * @return whether the operation succeeded
+     * removes a stored set from the date and exercise indexes, the statistics,
+     * the personal records and the rollups
+     * @param row: the row of the set in the set store
      */
-    private boolean rewriteSets() {
-        if (!files.clearFile(SET_PATH)) {
-            System.out.println("Unable to clear file.");
-            return false;
+    private void unindexRow(int row) {
+        int day = setList.day(row);
+        int exerciseId = setList.exercise(row);
+        float weight = setList.weight(row);
+        int reps = setList.reps(row);
+        ExerciseStats stats = statsByExercise.get(exerciseId);
+        stats.remove(day, weight, reps);
+        if (stats.isEmpty()) {
+            statsByExercise.remove(exerciseId);
+        }
+        PersonalRecords records = recordsByExercise.get(exerciseId);
+        records.remove(weight, reps);
+        if (records.isEmpty()) {
+            recordsByExercise.remove(exerciseId);
         }
-        int failureCount = 0;
-        for (Set set : setList) {
-            if (!files.writeToFile(SET_PATH, set)) {
-                failureCount++;
+        changedMonths.set(SetPartitions.monthOf(day));
+        removeFromIndex(setsByDate, day, row);
+        removeFromIndex(setsByExercise, exerciseId, row);
+        rollups.remove(day, exerciseId, weight, reps, this::maxWeightBetween);
+    }
+
+    /**
+     * removes every set of an exercise using the exercise index. The totals
+     * of the exercise are dropped as a whole instead of set by set.
+     * @param exerciseId: the id of the exercise
+     */
+    private void removeExerciseSets(int exerciseId) {
+        IntList rows = setsByExercise.remove(exerciseId);
+        if (rows == null) {
+            return;
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            int row = rows.get(i);
+            changedMonths.set(SetPartitions.monthOf(setList.day(row)));
+            removeFromIndex(setsByDate, setList.day(row), row);
+        }
+        for (int i = rows.size()-1; i >= 0; i--) {
+            setList.remove(rows.get(i));
+        }
+        statsByExercise.remove(exerciseId);
+        recordsByExercise.remove(exerciseId);
+        rollups.removeExercise(exerciseId);
+    }
+
+    /**
+     * removes a row from an index of rows, dropping the key when it has no rows left
+     * @param <K>: the type of the keys
+     * @param index: the rows by key, each in ascending order
+     * @param key: the key of the row
+     * @param row: the row to be removed
+     */
+    private <K> void removeFromIndex(Map<K, IntList> index, K key, int row) {
+        IntList rows = index.get(key);
+        rows.removeSorted(row);
+        if (rows.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * removes every set from the set store, the date and exercise indexes,
+     * the statistics, the personal records and the rollups
+     */
+    private void clearStoredSets() {
+        for (int day : setsByDate.keySet()) {
+            changedMonths.set(SetPartitions.monthOf(day));
+        }
+        setList.clear();
+        setsByDate.clear();
+        setsByExercise.clear();
+        statsByExercise.clear();
+        recordsByExercise.clear();
+        rollups.clear();
+    }
+
+    /**
+     * finds the first row in a list of rows whose set has a larger id than given.
+     * Rows in ascending order also have their ids in ascending order.
+     * @param rows: the rows in ascending order
+     * @param id: the id
+     * @return the index of the row in the list, or the size of the list if there is no such row
+     */
+    private int firstAfter(IntList rows, int id) {
+        int low = 0;
+        int high = rows.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (setList.id(rows.get(middle)) <= id) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * sums the set counts and volumes of the given exercises
+     * @param totalsByExercise: the set count and volume in hundredths by exercise id
+     * @param exercises: the ids of the exercises to be summed
+     * @return the set count and the volume in hundredths
+     */
+    private long[] sumTotals(HashMap<Integer, long[]> totalsByExercise, BitSet exercises) {
+        long[] sum = new long[2];
+        for (var entry : totalsByExercise.entrySet()) {
+            if (exercises.get(entry.getKey())) {
+                sum[0] += entry.getValue()[0];
+                sum[1] += entry.getValue()[1];
             }
         }
-        if (failureCount > 0) {
-            System.out.println(failureCount + " sets lost during operation.");
+        return sum;
+    }
+
+    /**
+     * parses a date given by the user
+     * @param date: the date as a string
+     * @return the parsed date or null if the date is not valid
+     */
+    private LocalDate dateFromInput(String date) {
+        try {
+            return Set.parseDate(date);
+        }
+        catch (DateTimeParseException e) {
+            System.out.println("Incorrect format for date.");
+            return null;
+        }
+    }
+
+    /**
+     * loads the latest snapshot of a log and then the part of the log written after it
+     * @param <T>: the type of the records
+     * @param logPath: path to the log file
+     * @param snapshotPath: path to the snapshot file
+     * @param classForParsing: the type of the records
+     * @param replay: receives the entries of the snapshot and the log
+     * @return the number of log entries that are not yet covered by a snapshot, or -1 if
+     * the snapshot or the log could not be read to the end
+     */
+    private <T> int loadLog(String logPath, String snapshotPath, Class<T> classForParsing, LogReplay<T> replay) {
+        long[] snapshot = files.readSnapshotHeader(snapshotPath);
+        if (snapshot != null && files.replayLog(snapshotPath, 0, classForParsing, replay) < 0) {
+            return -1;
+        }
+        return replayTail(logPath, snapshot, classForParsing, replay);
+    }
+
+    /**
+     * replays the part of a log that is not covered by an already loaded snapshot
+     * @param <T>: the type of the records
+     * @param logPath: path to the log file
+     * @param snapshot: the generation and log position of the snapshot or null if there is none
+     * @param classForParsing: the type of the records
+     * @param replay: receives the entries of the log
+     * @return the number of log entries replayed, or -1 if the log could not be read to the end
+     */
+    private <T> int replayTail(String logPath, long[] snapshot, Class<T> classForParsing, LogReplay<T> replay) {
+        long logPosition = 0;
+        if (snapshot != null && snapshot[0] == files.readGeneration(logPath)) {
+            logPosition = snapshot[1];
+        }
+        return files.replayLog(logPath, logPosition, classForParsing, replay);
+    }
+
+    /**
+     * counts an entry written to the exercise log and starts a compaction when the log has grown too long
+     * @param succeeded: whether writing the entry succeeded
+     * @return whether writing the entry succeeded
+     */
+    private boolean exerciseLogged(boolean succeeded) {
+        return exerciseLogged(succeeded, 1);
+    }
+
+    /**
+     * counts entries written to the exercise log and starts a compaction when the log has grown too long
+     * @param succeeded: whether writing the entries succeeded
+     * @param entries: the number of entries written
+     * @return whether writing the entries succeeded
+     */
+    private boolean exerciseLogged(boolean succeeded, int entries) {
+        if (succeeded) {
+            exerciseLogEntries += entries;
+        }
+        if (!batching && !filesUnreadable && exerciseLogEntries >= COMPACTION_THRESHOLD
+            && !isRunning(exerciseCompaction)) {
+            exerciseCompaction = compactExercises();
+        }
+        return succeeded;
+    }
+
+    /**
+     * counts an entry written to the set log and starts a compaction when the log has grown too long
+     * @param succeeded: whether writing the entry succeeded
+     * @return whether writing the entry succeeded
+     */
+    private boolean setLogged(boolean succeeded) {
+        return setLogged(succeeded, 1);
+    }
+
+    /**
+     * counts entries written to the set log and starts a compaction when the log has grown too long
+     * @param succeeded: whether writing the entries succeeded
+     * @param entries: the number of entries written
+     * @return whether writing the entries succeeded
+     */
+    private boolean setLogged(boolean succeeded, int entries) {
+        if (succeeded) {
+            setLogEntries += entries;
+        }
+        if (!batching && !filesUnreadable && setLogEntries >= COMPACTION_THRESHOLD
+            && !isRunning(setCompaction)) {
+            setCompaction = compactSets();
+        }
+        return succeeded;
+    }
+
+    /**
+     * copies the exercises and starts writing them to a snapshot in the background.
+     * Names of deleted exercises are kept in the snapshot as deleted records.
+     * @return whether the compaction succeeded, once it has finished
+     */
+    private Future<Boolean> compactExercises() {
+        ArrayList<Exercise> exercises = new ArrayList<>();
+        for (Exercise exercise : exerciseList.values()) {
+            exercises.add(exercise.copy());
+        }
+        ArrayList<Exercise> deletedExercises = new ArrayList<>();
+        for (int id = 1; id < exerciseNames.size(); id++) {
+            if (exerciseNames.hasName(id) && !exerciseList.containsKey(id)) {
+                Exercise deletedExercise = new Exercise();
+                deletedExercise.id = id;
+                deletedExercise.name = exerciseNames.name(id);
+                deletedExercise.primaryMuscles = new ArrayList<>();
+                deletedExercise.secondaryMuscles = new ArrayList<>();
+                deletedExercise.type = "";
+                deletedExercises.add(deletedExercise);
+            }
+        }
+        long generation = files.readGeneration(EXERCISE_PATH);
+        long logPosition = files.logSize(EXERCISE_PATH);
+        exerciseLogEntries = 0;
+        return compactor.compact(EXERCISE_PATH, EXERCISE_SNAPSHOT_PATH, generation, logPosition, path -> {
+            if (!files.writeSnapshotHeader(path, generation, logPosition)
+                || !files.writeAllToFile(path, deletedExercises)) {
+                return false;
+            }
+            for (Exercise deletedExercise : deletedExercises) {
+                if (!files.writeDelete(path, String.valueOf(deletedExercise.id))) {
+                    return false;
+                }
+            }
+            return files.writeAllToFile(path, exercises);
+        });
+    }
+
+    /**
+     * copies the sets of the months that changed and starts writing them to
+     * their partitions in the background
+     * @return whether the compaction succeeded, once it has finished
+     */
+    private Future<Boolean> compactSets() {
+        if (compactingMonths != null && !succeeded(setCompaction)) {
+            // the months of a failed compaction still have to be written
+            changedMonths.or(compactingMonths);
+        }
+        BitSet months = compactingMonths = changedMonths;
+        changedMonths = new BitSet();
+        TreeMap<Integer, SetStore> monthSets = copyMonths(months);
+        int nextId = nextSetId;
+        ArrayList<Rollup> rollupCopies = rollups.copy();
+        boolean binary = binarySetSnapshots;
+        long generation = files.readGeneration(SET_PATH);
+        long logPosition = files.logSize(SET_PATH);
+        setLogEntries = 0;
+        return compactor.compact(SET_PATH, generation, logPosition,
+            () -> writeRollups(rollupCopies, generation, logPosition)
+                && setPartitions.write(monthSets, months, binary, generation, logPosition, nextId));
+    }
+
+    /**
+     * copies the sets of some months through the date index, so that the work
+     * does not grow with the sets of the other months
+     * @param months: the months to copy
+     * @return the sets of every month that has any, in id order
+     */
+    private TreeMap<Integer, SetStore> copyMonths(BitSet months) {
+        TreeMap<Integer, SetStore> monthSets = new TreeMap<>();
+        for (int month = months.nextSetBit(0); month >= 0; month = months.nextSetBit(month + 1)) {
+            Collection<IntList> days = setsByDate.subMap(
+                SetPartitions.firstDayOf(month), true, SetPartitions.firstDayOf(month + 1), false).values();
+            int count = 0;
+            for (IntList dayRows : days) {
+                count += dayRows.size();
+            }
+            if (count == 0) {
+                continue;
+            }
+            int[] rows = new int[count];
+            int next = 0;
+            for (IntList dayRows : days) {
+                for (int i = 0; i < dayRows.size(); i++) {
+                    rows[next++] = dayRows.get(i);
+                }
+            }
+            // rows are stored in id order
+            Arrays.sort(rows);
+            SetStore monthStore = new SetStore();
+            for (int row : rows) {
+                monthStore.add(setList.id(row), setList.day(row), setList.exercise(row), setList.weight(row),
+                    setList.reps(row));
+            }
+            monthSets.put(month, monthStore);
+        }
+        return monthSets;
+    }
+
+    /**
+     * writes the rollups with a header that tells which part of the set log they cover.
+     * If the set snapshot is not written after them, the headers do not match and the
+     * rollups are counted again from the sets on the next start.
+     * @param rollupsToWrite: copies of the rollups
+     * @param generation: the generation of the set log
+     * @param logPosition: the byte position of the set log that the rollups cover
+     * @return whether the operation succeeded
+     */
+    private boolean writeRollups(ArrayList<Rollup> rollupsToWrite, long generation, long logPosition) {
+        String tempPath = ROLLUP_PATH + ".tmp";
+        return files.writeSnapshotHeader(tempPath, generation, logPosition)
+            && files.writeAllToFile(tempPath, rollupsToWrite)
+            && files.replaceFile(tempPath, ROLLUP_PATH);
+    }
+
+    /**
+     * tells whether a background task is still running
+     * @param task: the task or null if it was never started
+     * @return whether the task is running
+     */
+    private boolean isRunning(Future<Boolean> task) {
+        return task != null && !task.isDone();
+    }
+
+    /**
+     * tells whether a finished background task succeeded
+     * @param task: the task
+     * @return whether the task returned true
+     */
+    private boolean succeeded(Future<Boolean> task) {
+        try {
+            return task.get();
+        }
+        catch (Exception e) {
+            return false;
         }
-        return true;
     }
 }
@@ -0,0 +1,82 @@
+package gymtracker;
+
+/**
+ * Class for the policy of when written data is flushed from memory to the data files
+ */
+public class Durability {
+    public enum Mode {
+        RECORD,
+        GROUP,
+        QUIT
+    }
+
+    private final static int DEFAULT_GROUP_RECORDS = 100;
+    private final static long DEFAULT_GROUP_MILLIS = 1000;
+
+    public final Mode mode;
+    public final int groupRecords;
+    public final long groupMillis;
+
+    private Durability(Mode mode, int groupRecords, long groupMillis) {
+        this.mode = mode;
+        this.groupRecords = groupRecords;
+        this.groupMillis = groupMillis;
+    }
+
+    /**
+     * flushes after every record
+     * @return the policy
+     */
+    public static Durability perRecord() {
+        return new Durability(Mode.RECORD, 1, 0);
+    }
+
+    /**
+     * flushes once enough records have been written or enough time has passed since the last flush
+     * @param records: the number of records written between flushes
+     * @param millis: the longest time in milliseconds that written records wait for a flush
+     * @return the policy
+     */
+    public static Durability groupCommit(int records, long millis) {
+        return new Durability(Mode.GROUP, records, millis);
+    }
+
+    /**
+     * flushes only when the program quits or the write buffer is full
+     * @return the policy
+     */
+    public static Durability onQuit() {
+        return new Durability(Mode.QUIT, Integer.MAX_VALUE, 0);
+    }
+
+    /**
+     * parses a policy from the format "record", "group", "group:<records>:<millis>" or "quit"
+     * @param policy: the policy as a string
+     * @return the parsed policy
+     * @throws IllegalArgumentException, if the policy is not in a supported format
+     */
+    public static Durability parse(String policy) throws IllegalArgumentException {
+        String[] parts = policy.split(":");
+        switch (parts[0]) {
+            case "record":
+                return perRecord();
+            case "quit":
+                return onQuit();
+            case "group":
+                if (parts.length == 1) {
+                    return groupCommit(DEFAULT_GROUP_RECORDS, DEFAULT_GROUP_MILLIS);
+                }
+                if (parts.length == 3) {
+                    int records = Integer.parseInt(parts[1]);
+                    long millis = Long.parseLong(parts[2]);
+                    if (records > 0 && millis > 0) {
+                        return groupCommit(records, millis);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Unknown durability policy: " + policy);
+    }
+}
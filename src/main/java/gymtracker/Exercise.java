@@ -6,11 +6,26 @@ import java.util.ArrayList;
  * Class for storing exercise information as an object
  */
 public class Exercise {
+    public int id;
     public String name;
     public ArrayList<String> primaryMuscles;
     public ArrayList<String> secondaryMuscles;
     public String type;
 
+    /**
+     * creates a copy of the exercise that later modifications of the exercise do not affect
+     * @return the copy
+     */
+    public Exercise copy() {
+        Exercise copy = new Exercise();
+        copy.id = id;
+        copy.name = name;
+        copy.primaryMuscles = new ArrayList<>(primaryMuscles);
+        copy.secondaryMuscles = new ArrayList<>(secondaryMuscles);
+        copy.type = type;
+        return copy;
+    }
+
     @Override
     public String toString() {
         return name;
@@ -0,0 +1,89 @@
+package gymtracker;
+
+import java.util.ArrayList;
+
+/**
+ * Class for reading and writing exercises in the text format of the data files
+ */
+public class ExerciseCodec implements RecordCodec<Exercise> {
+    @Override
+    public Exercise newRecord() {
+        return new Exercise();
+    }
+
+    @Override
+    public void readField(Exercise exercise, String name, String value) throws IllegalArgumentException {
+        switch (name) {
+            case "id":
+                exercise.id = Integer.parseInt(value);
+                break;
+            case "name":
+                exercise.name = RecordCodec.unquote(value);
+                break;
+            case "primaryMuscles":
+                exercise.primaryMuscles = readList(value);
+                break;
+            case "secondaryMuscles":
+                exercise.secondaryMuscles = readList(value);
+                break;
+            case "type":
+                exercise.type = RecordCodec.unquote(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown field for exercise: " + name);
+        }
+    }
+
+    @Override
+    public void write(Exercise exercise, StringBuilder output) {
+        output.append("id:").append(exercise.id).append(NEWLINE);
+        output.append("name:");
+        RecordCodec.writeQuoted(exercise.name, output);
+        output.append(NEWLINE).append("primaryMuscles:");
+        writeList(exercise.primaryMuscles, output);
+        output.append(NEWLINE).append("secondaryMuscles:");
+        writeList(exercise.secondaryMuscles, output);
+        output.append(NEWLINE).append("type:");
+        RecordCodec.writeQuoted(exercise.type, output);
+        output.append(NEWLINE).append("end").append(NEWLINE);
+    }
+
+    /**
+     * reads a list of quoted strings such as ["chest","triceps"]
+     * @param value: the list as written in the file
+     * @return the strings of the list
+     */
+    private ArrayList<String> readList(String value) {
+        ArrayList<String> result = new ArrayList<>();
+        int end = value.length() - 1;
+        if (value.charAt(0) != '[' || value.charAt(end) != ']') {
+            throw new IllegalArgumentException("Incorrect format for list: " + value);
+        }
+        int start = 1;
+        while (start < end) {
+            int comma = value.indexOf(',', start);
+            if (comma < 0 || comma > end) {
+                comma = end;
+            }
+            result.add(value.substring(start + 1, comma - 1));
+            start = comma + 1;
+        }
+        return result;
+    }
+
+    /**
+     * writes a list of strings as a list of quoted strings
+     * @param values: the strings to be written
+     * @param output: where the list is appended
+     */
+    private void writeList(ArrayList<String> values, StringBuilder output) {
+        output.append('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                output.append(',');
+            }
+            RecordCodec.writeQuoted(values.get(i), output);
+        }
+        output.append(']');
+    }
+}
@@ -0,0 +1,125 @@
+package gymtracker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Class for mapping exercise names to the stable ids that sets refer to.
+ * Names of deleted exercises are kept so that their sets can still be shown,
+ * but a name is only given the id of a deleted exercise until it is used
+ * again, so that ids of deleted exercises are never reused. The latest
+ * deleted id of every name is kept in a map of its own, so that looking up
+ * a name never goes through all names.
+ */
+public class ExerciseDictionary {
+    private ArrayList<String> names;
+    private HashMap<String, Integer> ids;
+    private HashMap<String, Integer> deletedIds;
+
+    public ExerciseDictionary() {
+        this.names = new ArrayList<>();
+        this.names.add(null);
+        this.ids = new HashMap<>();
+        this.deletedIds = new HashMap<>();
+    }
+
+    /**
+     * stores a name for an id, replacing the earlier name of the id
+     * @param id: the id of the exercise
+     * @param name: the name of the exercise
+     */
+    public void put(int id, String name) {
+        while (names.size() <= id) {
+            names.add(null);
+        }
+        String oldName = names.set(id, name);
+        if (oldName != null && !oldName.equals(name)) {
+            ids.remove(oldName, id);
+            deletedIds.remove(oldName, id);
+        }
+        ids.put(name, id);
+    }
+
+    /**
+     * stops giving a name the id of an exercise that was deleted, keeping the
+     * name of the id for showing its sets
+     * @param id: the id of the deleted exercise
+     */
+    public void release(int id) {
+        if (id < names.size() && names.get(id) != null && ids.remove(names.get(id), id)) {
+            deletedIds.merge(names.get(id), id, Math::max);
+        }
+    }
+
+    /**
+     * stops giving any name the id of an exercise, used when all exercises are deleted
+     */
+    public void releaseAll() {
+        for (var entry : ids.entrySet()) {
+            deletedIds.merge(entry.getKey(), entry.getValue(), Math::max);
+        }
+        ids.clear();
+    }
+
+    /**
+     * reserves an id without giving it a name, used for ids found in saved sets
+     * @param id: the id to reserve
+     */
+    public void reserve(int id) {
+        while (names.size() <= id) {
+            names.add(null);
+        }
+    }
+
+    /**
+     * returns the id for a name, giving the name a new id if it has none
+     * @param name: the name of the exercise
+     * @return the id of the exercise
+     */
+    public int idFor(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            put(id, name);
+        }
+        return id;
+    }
+
+    /**
+     * returns the id for a name, or the latest deleted exercise with the name
+     * if no exercise has it now
+     * @param name: the name of the exercise
+     * @return the id of the exercise or null if the name is unknown
+     */
+    public Integer id(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : deletedIds.get(name);
+    }
+
+    /**
+     * tells whether an id has a name
+     * @param id: the id of the exercise
+     * @return whether the id has a name
+     */
+    public boolean hasName(int id) {
+        return id < names.size() && names.get(id) != null;
+    }
+
+    /**
+     * returns the upper bound of the ids given so far
+     * @return one more than the largest id
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * returns the name for an id
+     * @param id: the id of the exercise
+     * @return the name of the exercise
+     */
+    public String name(int id) {
+        String name = id < names.size() ? names.get(id) : null;
+        return name != null ? name : "deleted exercise #" + id;
+    }
+}
@@ -0,0 +1,112 @@
+package gymtracker;
+
+import java.util.TreeMap;
+
+/**
+ * Class for statistics of one exercise that are kept up to date as sets are
+ * added and removed. Maximums are kept as counted values so that removing a
+ * set falls back to the next best value without looking at other sets.
+ */
+public class ExerciseStats {
+    private long volumeHundredths;
+    private int setCount;
+    private TreeMap<Float, Integer> weights;
+    private TreeMap<Float, Integer> oneRepMaxes;
+    private TreeMap<Integer, Integer> days;
+
+    public ExerciseStats() {
+        this.volumeHundredths = 0;
+        this.setCount = 0;
+        this.weights = new TreeMap<>();
+        this.oneRepMaxes = new TreeMap<>();
+        this.days = new TreeMap<>();
+    }
+
+    /**
+     * counts a set into the statistics
+     * @param day: the date of the set as an epoch day
+     * @param weight: the weight of the set
+     * @param reps: the reps of the set
+     */
+    public void add(int day, float weight, int reps) {
+        volumeHundredths += Math.round(weight * 100) * (long) reps;
+        setCount++;
+        weights.merge(weight, 1, Integer::sum);
+        oneRepMaxes.merge(estimateOneRepMax(weight, reps), 1, Integer::sum);
+        days.merge(day, 1, Integer::sum);
+    }
+
+    /**
+     * removes a set that was counted earlier from the statistics
+     * @param day: the date of the set as an epoch day
+     * @param weight: the weight of the set
+     * @param reps: the reps of the set
+     */
+    public void remove(int day, float weight, int reps) {
+        volumeHundredths -= Math.round(weight * 100) * (long) reps;
+        setCount--;
+        decrement(weights, weight);
+        decrement(oneRepMaxes, estimateOneRepMax(weight, reps));
+        decrement(days, day);
+    }
+
+    /**
+     * returns the sum of weight times reps over all sets
+     * @return the total volume in kilograms
+     */
+    public double volume() {
+        return volumeHundredths / 100.0;
+    }
+
+    public int setCount() {
+        return setCount;
+    }
+
+    public boolean isEmpty() {
+        return setCount == 0;
+    }
+
+    /**
+     * returns the heaviest weight of any set
+     * @return the weight or 0 if there are no sets
+     */
+    public float maxWeight() {
+        return weights.isEmpty() ? 0 : weights.lastKey();
+    }
+
+    /**
+     * returns the best one rep max estimated from any set
+     * @return the estimate or 0 if there are no sets
+     */
+    public float bestOneRepMax() {
+        return oneRepMaxes.isEmpty() ? 0 : oneRepMaxes.lastKey();
+    }
+
+    /**
+     * returns the date of the latest set
+     * @return the date as an epoch day or null if there are no sets
+     */
+    public Integer lastDay() {
+        return days.isEmpty() ? null : days.lastKey();
+    }
+
+    /**
+     * estimates the one rep max of a set with the Epley formula
+     * @param weight: the weight of the set
+     * @param reps: the reps of the set
+     * @return the estimated one rep max
+     */
+    public static float estimateOneRepMax(float weight, int reps) {
+        return reps <= 1 ? weight : weight * (1 + reps / 30f);
+    }
+
+    /**
+     * removes one occurrence of a value from a counted set of values
+     * @param <K>: the type of the values
+     * @param counts: the counts of the values
+     * @param value: the value to be removed
+     */
+    private static <K> void decrement(TreeMap<K, Integer> counts, K value) {
+        counts.computeIfPresent(value, (k, count) -> count == 1 ? null : count - 1);
+    }
+}
@@ -2,20 +2,90 @@ package gymtracker;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.File;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.lang.reflect.Field;
-import java.lang.reflect.ParameterizedType;
-import java.util.List;
-import java.util.Locale;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 /**
  * Class for handling file operations
  */
 public class FileHandler {
+    private final static Map<Class<?>, RecordCodec<?>> CODECS = Map.of(
+        Exercise.class, new ExerciseCodec(),
+        Set.class, new SetCodec(),
+        Rollup.class, new RollupCodec()
+    );
+    private final static String DELETE = "delete";
+    private final static String CLEAR = "clear";
+    private final static String GENERATION = "generation";
+    private final static String SNAPSHOT = "snapshot";
+    private final static int CHUNK_SIZE = 8 << 20;
+
+    private Durability durability;
+    private boolean parallelLoading;
+    private ConcurrentHashMap<String, Object> fileLocks;
+    private ConcurrentHashMap<String, LogWriter> writers;
+    private ScheduledExecutorService flusher;
+
+    /**
+     * Constructor for a file handler that flushes after every record
+     */
+    public FileHandler() {
+        this(Durability.perRecord());
+    }
+
+    /**
+     * Constructor for a file handler with given durability policy
+     * @param durability: when written data is flushed to the files
+     */
+    public FileHandler(Durability durability) {
+        this(durability, Runtime.getRuntime().availableProcessors() > 1);
+    }
+
+    /**
+     * Constructor for a file handler with given durability policy and loading mode
+     * @param durability: when written data is flushed to the files
+     * @param parallelLoading: whether large files are parsed in parallel chunks
+     */
+    public FileHandler(Durability durability, boolean parallelLoading) {
+        this.durability = durability;
+        this.parallelLoading = parallelLoading;
+        this.fileLocks = new ConcurrentHashMap<>();
+        this.writers = new ConcurrentHashMap<>();
+        if (durability.mode == Durability.Mode.GROUP) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(
+                this::flushAll, durability.groupMillis, durability.groupMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
     /**
      * parses the saved data from a file into a list of objects
      * @param <T>: type of the list's objects
@@ -25,41 +95,42 @@ public class FileHandler {
      */
     public <T> ArrayList<T> parseFile(String fileName, Class<T> classForParsing) {
         ArrayList<T> parsedObjects = new ArrayList<>();
+        parseFile(fileName, classForParsing, parsedObjects::add);
+        return parsedObjects;
+    }
 
-        try(BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
-            T parsed = classForParsing.getDeclaredConstructor().newInstance();
-
-            String line = reader.readLine();
-            while (line != null) {
-                if (line.equals("end")) {
-                    parsedObjects.add(parsed);
-                    parsed = classForParsing.getDeclaredConstructor().newInstance();
-                    line = reader.readLine();
-                    continue;
-                }
-
-                String[] parts = line.split(":");
-                String name = parts[0];
-                String value = parts[1];
-                Field attribute = classForParsing.getField(name);
-                boolean isList = false;
-                Class attributeType = attribute.getType();
-
-                if (value.charAt(0) == '[' && value.charAt(value.length()-1) == ']') {
-                    value = value.substring(1, value.length()-1);
-                    isList = true;
-                    ParameterizedType listType = (ParameterizedType) attribute.getGenericType();
-                    attributeType = (Class) listType.getActualTypeArguments()[0];
-                }
-
-                if (isList) {
-                    attribute.set(parsed, parseValues(value, attributeType));
-                }
-                else {
-                    attribute.set(parsed, parseValues(value, attributeType).get(0));
-                }
+    /**
+     * parses the saved data from a file, handing each object over as soon as it is read
+     * @param <T>: type of the parsed objects
+     * @param fileName: path to the file
+     * @param classForParsing: the type of the parsed objects
+     * @param consumer: receives the parsed objects in file order
+     */
+    public <T> void parseFile(String fileName, Class<T> classForParsing, Consumer<T> consumer) {
+        replayLog(fileName, 0, classForParsing, consumer::accept);
+    }
 
-                line = reader.readLine();
+    /**
+     * reads a log file, passing records, delete entries and clear entries on in file order
+     * @param <T>: type of the parsed objects
+     * @param fileName: path to the file
+     * @param offset: the byte position in the file to start reading from
+     * @param classForParsing: the type of the parsed objects
+     * @param replay: receives the entries of the log
+     * @return the number of entries read, or -1 if the file could not be read to the end.
+     * The entries before the error have then already been passed on.
+     */
+    public <T> int replayLog(String fileName, long offset, Class<T> classForParsing, LogReplay<T> replay) {
+        int entryCount = 0;
+        try(FileInputStream input = new FileInputStream(fileName)) {
+            RecordCodec<T> codec = codecFor(classForParsing);
+            FileChannel channel = input.getChannel();
+            if (parallelLoading && channel.size() - offset >= 2 * CHUNK_SIZE) {
+                entryCount = replayChunks(channel, offset, codec, replay);
+            }
+            else {
+                channel.position(offset);
+                entryCount = replayLines(new BufferedReader(new InputStreamReader(input)), codec, replay);
             }
         }
         catch (FileNotFoundException e) {
@@ -69,12 +140,142 @@ public class FileHandler {
         catch (NumberFormatException e) {
             System.err.println(
                 "Incorrect format for number in file. Unable to read tracking data.");
+            return -1;
+        }
+        catch (DateTimeParseException e) {
+            System.err.println(
+                "Incorrect format for date in file. Unable to read tracking data.");
+            return -1;
         }
         catch(Exception e) {
             System.err.println("Unable to read file: " + e);
+            return -1;
         }
+        return entryCount;
+    }
 
-        return parsedObjects;
+    /**
+     * reads the generation of a log file. The generation grows by one
+     * every time the log is truncated after a snapshot.
+     * @param fileName: path to the log file
+     * @return the generation of the log, 0 for logs that have never been truncated
+     */
+    public long readGeneration(String fileName) {
+        try(BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+            String line = reader.readLine();
+            if (line != null && line.startsWith(GENERATION + ":")) {
+                return Long.parseLong(line.substring(GENERATION.length() + 1));
+            }
+        }
+        catch (FileNotFoundException e) {
+            return 0;
+        }
+        catch (Exception e) {
+            System.err.println("Unable to read file: " + e);
+        }
+        return 0;
+    }
+
+    /**
+     * reads the header of a snapshot file
+     * @param fileName: path to the snapshot file
+     * @return the generation and the byte position of the log that the snapshot
+     * covers, or null if there is no snapshot
+     */
+    public long[] readSnapshotHeader(String fileName) {
+        try(BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+            String line = reader.readLine();
+            if (line != null && line.startsWith(SNAPSHOT + ":")) {
+                String[] parts = line.split(":");
+                return new long[] {Long.parseLong(parts[1]), Long.parseLong(parts[2])};
+            }
+        }
+        catch (FileNotFoundException e) {
+            return null;
+        }
+        catch (Exception e) {
+            System.err.println("Unable to read snapshot: " + e);
+        }
+        return null;
+    }
+
+    /**
+     * starts a snapshot file with a header that tells which part of the log it covers
+     * @param fileName: path to the snapshot file
+     * @param generation: the generation of the log
+     * @param logPosition: the byte position of the log up to which the snapshot covers it
+     * @return whether the operation succeeded
+     */
+    public boolean writeSnapshotHeader(String fileName, long generation, long logPosition) {
+        return clearFile(fileName) && writeLine(fileName, SNAPSHOT + ":" + generation + ":" + logPosition);
+    }
+
+    /**
+     * writes all buffered data of every open file to the files
+     */
+    public void flushAll() {
+        for (String fileName : writers.keySet()) {
+            synchronized (lockFor(fileName)) {
+                LogWriter writer = writers.get(fileName);
+                try {
+                    if (writer != null) {
+                        writer.flush();
+                    }
+                }
+                catch (IOException e) {
+                    System.err.println("Unable to write to file: " + e);
+                }
+            }
+        }
+    }
+
+    /**
+     * flushes and closes every open file
+     */
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        for (String fileName : writers.keySet()) {
+            synchronized (lockFor(fileName)) {
+                closeWriter(fileName);
+            }
+        }
+    }
+
+    /**
+     * returns the current size of a log file
+     * @param fileName: path to the log file
+     * @return the size in bytes, 0 if the file does not exist
+     */
+    public long logSize(String fileName) {
+        synchronized (lockFor(fileName)) {
+            flushWriter(fileName);
+            File file = new File(fileName);
+            return file.exists() ? file.length() : 0;
+        }
+    }
+
+    /**
+     * removes the beginning of a log file that is covered by a snapshot.
+     * The rest of the log is copied to a new file of the next generation,
+     * which then replaces the log.
+     * @param fileName: path to the log file
+     * @param generation: the generation of the log that the snapshot covers
+     * @param logPosition: the byte position up to which the snapshot covers the log
+     * @return whether the operation succeeded
+     */
+    public boolean truncateLog(String fileName, long generation, long logPosition) {
+        synchronized (lockFor(fileName)) {
+            String tempName = fileName + ".tmp";
+            if (!clearFile(tempName)
+                || !writeLine(tempName, GENERATION + ":" + (generation + 1))
+                || !closeWriter(tempName)
+                || !closeWriter(fileName)) {
+                return false;
+            }
+            return copyTail(fileName, tempName, logPosition) && replaceFile(tempName, fileName);
+        }
     }
 
     /**
@@ -85,97 +286,418 @@ public class FileHandler {
      * @return whether the operation succeeded
      */
     public <T> boolean writeToFile(String fileName, T objectToBeWritten) {
-        Field[] attributes = objectToBeWritten.getClass().getFields();
-        try(BufferedWriter writer = new BufferedWriter(new FileWriter(fileName, true))) {
-            for (Field attribute : attributes) {
-                String line = attribute.getName() + ":";
-                if (attribute.get(objectToBeWritten) instanceof List) {
-                    line += "[";
-                    for (var element : ((List<Object>) attribute.get(objectToBeWritten))) {
-                        line += setUpForWriting(element) + ",";
-                    }
-                    line = line.substring(0, line.length()-1);
-                    line += "]";
-                }
-                else {
-                    line += setUpForWriting(attribute.get(objectToBeWritten));
-                }
-                writer.write(line);
-                writer.newLine();
+        synchronized (lockFor(fileName)) {
+            try {
+                LogWriter writer = writerFor(fileName);
+                writeRecord(writer.writer(), objectToBeWritten, new StringBuilder());
+                writer.recordWritten(durability);
+                return true;
+            }
+            catch(Exception e) {
+                System.err.println("Unable to write to file: " + e);
+                closeWriter(fileName);
+                return false;
             }
-            writer.write("end");
-            writer.newLine();
-            return true;
         }
-        catch(Exception e) {
-            System.err.println("Unable to write to file: " + e);
-            return false;
+    }
+
+    /**
+     * writes many objects' information to a file, opening the file only once
+     * @param <T>: the type of the objects to be written
+     * @param fileName: the path to the file
+     * @param objectsToBeWritten: the objects to be written to the file
+     * @return whether the operation succeeded
+     */
+    public <T> boolean writeAllToFile(String fileName, Iterable<T> objectsToBeWritten) {
+        synchronized (lockFor(fileName)) {
+            try {
+                LogWriter writer = writerFor(fileName);
+                StringBuilder output = new StringBuilder();
+                for (T objectToBeWritten : objectsToBeWritten) {
+                    writeRecord(writer.writer(), objectToBeWritten, output);
+                }
+                writer.recordWritten(durability);
+                return true;
+            }
+            catch(Exception e) {
+                System.err.println("Unable to write to file: " + e);
+                closeWriter(fileName);
+                return false;
+            }
         }
     }
 
+    /**
+     * appends a delete entry to a log file
+     * @param fileName: the path to the file
+     * @param key: the key of the deleted record or null for an entry without a key
+     * @return whether the operation succeeded
+     */
+    public boolean writeDelete(String fileName, String key) {
+        return writeLine(fileName, key == null ? DELETE : DELETE + ":" + key);
+    }
+
+    /**
+     * appends a clear entry to a log file
+     * @param fileName: the path to the file
+     * @return whether the operation succeeded
+     */
+    public boolean writeClear(String fileName) {
+        return writeLine(fileName, CLEAR);
+    }
+
     /**
      * completely empties a file's contents
      * @param fileName: the path to the file
      * @return whether the operation succeeded
      */
     public boolean clearFile(String fileName) {
-        try (PrintWriter clearer = new PrintWriter(fileName)) {
+        synchronized (lockFor(fileName)) {
+            closeWriter(fileName);
+            try (PrintWriter clearer = new PrintWriter(fileName)) {
+                return true;
+            }
+            catch (FileNotFoundException e) {
+                System.out.println("No file found.");
+                return false;
+            }
+            catch (Exception e) {
+                System.err.println("Unable to clear file: " + e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * deletes a file if it exists
+     * @param fileName: the path to the file
+     * @return whether the operation succeeded
+     */
+    public boolean deleteFile(String fileName) {
+        synchronized (lockFor(fileName)) {
+            closeWriter(fileName);
+            try {
+                Files.deleteIfExists(Path.of(fileName));
+                return true;
+            }
+            catch (Exception e) {
+                System.err.println("Unable to delete file: " + e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * replaces a file with another file in a single step
+     * @param source: the path to the new contents
+     * @param target: the path to the file to be replaced
+     * @return whether the operation succeeded
+     */
+    public boolean replaceFile(String source, String target) {
+        synchronized (lockFor(target)) {
+            synchronized (lockFor(source)) {
+                if (!closeWriter(source) || !closeWriter(target)) {
+                    return false;
+                }
+                try {
+                    Files.move(Path.of(source), Path.of(target),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    return true;
+                }
+                catch (Exception e) {
+                    System.err.println("Unable to replace file: " + e);
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * appends a single line to a file
+     * @param fileName: the path to the file
+     * @param line: the line to be written
+     * @return whether the operation succeeded
+     */
+    private boolean writeLine(String fileName, String line) {
+        synchronized (lockFor(fileName)) {
+            try {
+                LogWriter writer = writerFor(fileName);
+                writer.writer().write(line);
+                writer.writer().newLine();
+                writer.recordWritten(durability);
+                return true;
+            }
+            catch(Exception e) {
+                System.err.println("Unable to write to file: " + e);
+                closeWriter(fileName);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * returns the lock that guards writing to a file
+     * @param fileName: the path to the file
+     * @return the lock object
+     */
+    private Object lockFor(String fileName) {
+        return fileLocks.computeIfAbsent(fileName, f -> new Object());
+    }
+
+    /**
+     * returns the open writer for a file, opening the file if needed.
+     * The caller must hold the lock of the file.
+     * @param fileName: the path to the file
+     * @return the writer
+     * @throws IOException, if the file cannot be opened
+     */
+    private LogWriter writerFor(String fileName) throws IOException {
+        LogWriter writer = writers.get(fileName);
+        if (writer == null) {
+            writer = new LogWriter(fileName);
+            writers.put(fileName, writer);
+        }
+        return writer;
+    }
+
+    /**
+     * writes the buffered data of a file to the file if it is open.
+     * The caller must hold the lock of the file.
+     * @param fileName: the path to the file
+     */
+    private void flushWriter(String fileName) {
+        LogWriter writer = writers.get(fileName);
+        if (writer != null) {
+            try {
+                writer.flush();
+            }
+            catch (IOException e) {
+                System.err.println("Unable to write to file: " + e);
+            }
+        }
+    }
+
+    /**
+     * flushes and closes the writer of a file if it is open.
+     * The caller must hold the lock of the file.
+     * @param fileName: the path to the file
+     * @return whether the operation succeeded
+     */
+    private boolean closeWriter(String fileName) {
+        LogWriter writer = writers.remove(fileName);
+        if (writer == null) {
             return true;
         }
-        catch (FileNotFoundException e) {
-            System.out.println("No file found.");
+        try {
+            writer.close();
+            return true;
+        }
+        catch (IOException e) {
+            System.err.println("Unable to close file: " + e);
             return false;
         }
+    }
+
+    /**
+     * writes an object's information as one record
+     * @param <T>: the type of the object to be written
+     * @param writer: the writer for the file
+     * @param objectToBeWritten: the object to be written
+     * @param output: buffer for formatting the record, reused between records
+     * @throws IOException, if writing fails
+     */
+    private <T> void writeRecord(BufferedWriter writer, T objectToBeWritten, StringBuilder output) throws IOException {
+        output.setLength(0);
+        RecordCodec<T> codec = codecFor((Class<T>) objectToBeWritten.getClass());
+        codec.write(objectToBeWritten, output);
+        writer.append(output);
+    }
+
+    /**
+     * returns the codec for reading and writing a type of record
+     * @param <T>: the type of the records
+     * @param recordClass: the type of the records
+     * @return the codec
+     * @throws IllegalArgumentException, if there is no codec for the type
+     */
+    private <T> RecordCodec<T> codecFor(Class<T> recordClass) throws IllegalArgumentException {
+        RecordCodec<T> codec = (RecordCodec<T>) CODECS.get(recordClass);
+        if (codec == null) {
+            throw new IllegalArgumentException("No codec for " + recordClass.getSimpleName());
+        }
+        return codec;
+    }
+
+    /**
+     * appends the end of a file to another file
+     * @param source: the path to the file to copy from
+     * @param target: the path to the file to append to
+     * @param position: the byte position in the source file to start copying from
+     * @return whether the operation succeeded
+     */
+    private boolean copyTail(String source, String target, long position) {
+        try(FileChannel sourceChannel = FileChannel.open(Path.of(source), StandardOpenOption.READ);
+            FileChannel targetChannel = FileChannel.open(Path.of(target), StandardOpenOption.APPEND)) {
+            long size = sourceChannel.size();
+            while (position < size) {
+                position += sourceChannel.transferTo(position, size - position, targetChannel);
+            }
+            targetChannel.force(true);
+            return true;
+        }
         catch (Exception e) {
-            System.err.println("Unable to clear file: " + e);
+            System.err.println("Unable to truncate log: " + e);
             return false;
         }
     }
 
     /**
-     * parses a objects from string format
-     * @param <T>: the type of the object to be returned
-     * @param values: the string to be parsed
-     * @param type: the type of the object to be returned
-     * @return list of parsed objects
-     * @throws NumberFormatException, if values for number fields cannot be parsed as numbers
+     * reads log entries line by line
+     * @param <T>: type of the parsed objects
+     * @param reader: reads the lines of the log
+     * @param codec: the codec of the parsed objects
+     * @param replay: receives the entries of the log
+     * @return the number of entries read
+     * @throws IOException, if reading fails
      */
-    private <T> ArrayList<T> parseValues(String values, Class<T> type) throws NumberFormatException {
-        String[] valueArray = values.split(",");
-        ArrayList<T> result = new ArrayList<>();
+    private <T> int replayLines(BufferedReader reader, RecordCodec<T> codec, LogReplay<T> replay) throws IOException {
+        int entryCount = 0;
+        T parsed = codec.newRecord();
 
-        for (String value : valueArray) {
-            if (type == int.class) {
-                result.add((T) Integer.valueOf(value));
+        String line = reader.readLine();
+        while (line != null) {
+            if (line.equals("end")) {
+                replay.put(parsed);
+                entryCount++;
+                parsed = codec.newRecord();
+                line = reader.readLine();
+                continue;
+            }
+            if (line.equals(CLEAR)) {
+                replay.clear();
+                entryCount++;
+                line = reader.readLine();
+                continue;
+            }
+            if (line.equals(DELETE) || line.startsWith(DELETE + ":")) {
+                replay.delete(line.length() > DELETE.length() ? line.substring(DELETE.length() + 1) : null);
+                entryCount++;
+                line = reader.readLine();
+                continue;
             }
-            else if (type == float.class) {
-                result.add((T) Float.valueOf(value));
+            if (line.startsWith(GENERATION + ":") || line.startsWith(SNAPSHOT + ":")) {
+                line = reader.readLine();
+                continue;
             }
-            else if (type == String.class) {
-                result.add((T) value.substring(1, value.length()-1));
+
+            int separator = line.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Incorrect line in file: " + line);
             }
+            codec.readField(parsed, line.substring(0, separator), line.substring(separator + 1));
+
+            line = reader.readLine();
         }
-        return result;
+        return entryCount;
     }
 
     /**
-     * returns the value as string in appripriate format for writing to file
-     * @param <T>: type of the value 
-     * @param value: the value to be formatted
-     * @return value as string in correct format
+     * reads log entries by splitting the file into chunks that end at record
+     * boundaries, parsing the chunks in parallel and passing the entries on
+     * in file order. Only a limited number of chunks is parsed ahead of the
+     * chunk being passed on, so memory use does not grow with the file.
+     * @param <T>: type of the parsed objects
+     * @param channel: the log file
+     * @param offset: the byte position in the file to start reading from
+     * @param codec: the codec of the parsed objects
+     * @param replay: receives the entries of the log
+     * @return the number of entries read
+     * @throws IOException, if reading fails
      */
-    private <T> String setUpForWriting(T value) {
-        if (value.getClass() == Integer.class) {
-            return String.valueOf(value);
+    private <T> int replayChunks(FileChannel channel, long offset, RecordCodec<T> codec, LogReplay<T> replay)
+            throws IOException {
+        ArrayList<long[]> chunks = new ArrayList<>();
+        long size = channel.size();
+        long start = offset;
+        while (start < size) {
+            long end = start + CHUNK_SIZE >= size ? size : nextRecordBoundary(channel, start + CHUNK_SIZE);
+            chunks.add(new long[] {start, end});
+            start = end;
+        }
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int window = 2 * pool.getParallelism() + 1;
+        ArrayDeque<ForkJoinTask<ChunkEntries<T>>> running = new ArrayDeque<>();
+        int nextChunk = 0;
+        int entryCount = 0;
+        while (nextChunk < chunks.size() || !running.isEmpty()) {
+            while (nextChunk < chunks.size() && running.size() < window) {
+                long[] chunk = chunks.get(nextChunk++);
+                running.add(pool.submit(() -> parseChunk(channel, chunk[0], chunk[1], codec)));
+            }
+            entryCount += running.poll().join().replayTo(replay);
         }
-        else if (value.getClass() == Float.class) {
-            return String.format(Locale.US, "%.2f", value);
+        return entryCount;
+    }
+
+    /**
+     * parses one chunk of a log file into a list of entries
+     * @param <T>: type of the parsed objects
+     * @param channel: the log file
+     * @param start: the byte position where the chunk starts
+     * @param end: the byte position where the chunk ends
+     * @param codec: the codec of the parsed objects
+     * @return the entries of the chunk in file order
+     */
+    private <T> ChunkEntries<T> parseChunk(FileChannel channel, long start, long end, RecordCodec<T> codec) {
+        try {
+            ByteBuffer bytes = ByteBuffer.allocate((int) (end - start));
+            while (bytes.hasRemaining() && channel.read(bytes, start + bytes.position()) >= 0) {
+                continue;
+            }
+            ChunkEntries<T> entries = new ChunkEntries<>();
+            replayLines(new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(bytes.array(), 0, bytes.position()))), codec, entries);
+            return entries;
         }
-        else if (value.getClass() == String.class) {
-            return "\"" + value + "\"";
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        else {
-            return "";
+    }
+
+    /**
+     * finds the first record boundary at or after a position, which is the
+     * position right after the next "end" line
+     * @param channel: the log file
+     * @param position: the byte position to start searching from
+     * @return the byte position of the boundary, or the file size if there is none
+     * @throws IOException, if reading fails
+     */
+    private long nextRecordBoundary(FileChannel channel, long position) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(1 << 16);
+        long size = channel.size();
+        // step back one byte so that an "end" line starting right at the position is found
+        long searchStart = position - 1;
+        while (searchStart < size) {
+            window.clear();
+            int read = channel.read(window, searchStart);
+            if (read <= 0) {
+                break;
+            }
+            byte[] data = window.array();
+            for (int i = 0; i + 4 < read; i++) {
+                if (data[i] == '\n' && data[i+1] == 'e' && data[i+2] == 'n' && data[i+3] == 'd') {
+                    if (data[i+4] == '\n') {
+                        return searchStart + i + 5;
+                    }
+                    if (data[i+4] == '\r' && i + 5 < read && data[i+5] == '\n') {
+                        return searchStart + i + 6;
+                    }
+                }
+            }
+            // keep the last bytes in the next window in case an "end" line is split between windows
+            searchStart += Math.max(1, read - 5);
         }
+        return size;
     }
 }
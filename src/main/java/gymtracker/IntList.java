@@ -0,0 +1,87 @@
+package gymtracker;
+
+import java.util.Arrays;
+
+/**
+ * Class for a growable list of primitive ints
+ */
+public class IntList {
+    private int[] values;
+    private int size;
+
+    public IntList() {
+        this.values = new int[4];
+        this.size = 0;
+    }
+
+    /**
+     * adds a value to the end of the list
+     * @param value: the value to be added
+     */
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * returns the value at given position
+     * @param index: the position of the value
+     * @return the value
+     */
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return values[index];
+    }
+
+    /**
+     * adds a value to a list that is in ascending order, keeping the order
+     * @param value: the value to be added
+     */
+    public void addSorted(int value) {
+        if (size == 0 || values[size-1] < value) {
+            add(value);
+            return;
+        }
+        int index = -Arrays.binarySearch(values, 0, size, value) - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+    }
+
+    /**
+     * removes a value from a list that is in ascending order
+     * @param value: the value to be removed
+     * @return whether the value was found
+     */
+    public boolean removeSorted(int value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    /**
+     * removes every value, keeping the space for reuse
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,24 @@
+package gymtracker;
+
+/**
+ * Interface for receiving the entries of a log file in the order they were written
+ * @param <T>: the type of the records in the log
+ */
+public interface LogReplay<T> {
+    /**
+     * called for every record in the log
+     * @param record: the parsed record
+     */
+    void put(T record);
+
+    /**
+     * called for every delete entry in the log
+     * @param key: the key of the deleted record or null if the entry has no key
+     */
+    default void delete(String key) {}
+
+    /**
+     * called for every clear entry in the log
+     */
+    default void clear() {}
+}
@@ -0,0 +1,63 @@
+package gymtracker;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+
+/**
+ * Class for a data file that stays open for appending between writes
+ */
+public class LogWriter {
+    private final static int BUFFER_SIZE = 1 << 16;
+
+    private FileOutputStream stream;
+    private BufferedWriter writer;
+    private int unflushedRecords;
+
+    /**
+     * Constructor that opens a file for appending, creating it if needed
+     * @param fileName: the path to the file
+     * @throws IOException, if the file cannot be opened
+     */
+    public LogWriter(String fileName) throws IOException {
+        this.stream = new FileOutputStream(fileName, true);
+        this.writer = new BufferedWriter(new OutputStreamWriter(stream), BUFFER_SIZE);
+        this.unflushedRecords = 0;
+    }
+
+    public BufferedWriter writer() {
+        return writer;
+    }
+
+    /**
+     * counts a written record and flushes if the durability policy asks for it
+     * @param durability: the durability policy
+     * @throws IOException, if flushing fails
+     */
+    public void recordWritten(Durability durability) throws IOException {
+        unflushedRecords++;
+        if (unflushedRecords >= durability.groupRecords) {
+            flush();
+        }
+    }
+
+    /**
+     * writes all buffered data to the file
+     * @throws IOException, if writing fails
+     */
+    public void flush() throws IOException {
+        writer.flush();
+        unflushedRecords = 0;
+    }
+
+    /**
+     * writes all buffered data to the disk and closes the file
+     * @throws IOException, if writing or closing fails
+     */
+    public void close() throws IOException {
+        writer.flush();
+        stream.getFD().sync();
+        writer.close();
+    }
+}
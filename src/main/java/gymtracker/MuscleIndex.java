@@ -0,0 +1,101 @@
+package gymtracker;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Class for finding the exercises that train a muscle. Each muscle maps to
+ * bitsets over exercise ids, one for exercises that train it as a primary
+ * muscle and one for exercises that train it as a secondary muscle.
+ */
+public class MuscleIndex {
+    private TreeMap<String, BitSet> primaryExercises;
+    private TreeMap<String, BitSet> secondaryExercises;
+
+    public MuscleIndex() {
+        this.primaryExercises = new TreeMap<>();
+        this.secondaryExercises = new TreeMap<>();
+    }
+
+    /**
+     * adds the muscles of an exercise to the index
+     * @param exercise: the exercise to be added
+     */
+    public void add(Exercise exercise) {
+        setBits(primaryExercises, exercise.primaryMuscles, exercise.id, true);
+        setBits(secondaryExercises, exercise.secondaryMuscles, exercise.id, true);
+    }
+
+    /**
+     * removes the muscles of an exercise from the index
+     * @param exercise: the exercise to be removed, with the muscles it was added with
+     */
+    public void remove(Exercise exercise) {
+        setBits(primaryExercises, exercise.primaryMuscles, exercise.id, false);
+        setBits(secondaryExercises, exercise.secondaryMuscles, exercise.id, false);
+    }
+
+    /**
+     * removes every exercise from the index
+     */
+    public void clear() {
+        primaryExercises.clear();
+        secondaryExercises.clear();
+    }
+
+    /**
+     * returns the muscles trained by any exercise in sorted order
+     * @return the muscles
+     */
+    public TreeSet<String> muscles() {
+        TreeSet<String> muscles = new TreeSet<>(primaryExercises.keySet());
+        muscles.addAll(secondaryExercises.keySet());
+        return muscles;
+    }
+
+    /**
+     * returns the ids of the exercises that train a muscle as a primary muscle
+     * @param muscle: the muscle
+     * @return the ids as a bitset, which must not be modified
+     */
+    public BitSet primaryExercises(String muscle) {
+        return primaryExercises.getOrDefault(muscle, new BitSet());
+    }
+
+    /**
+     * returns the ids of the exercises that train a muscle as a secondary muscle
+     * @param muscle: the muscle
+     * @return the ids as a bitset, which must not be modified
+     */
+    public BitSet secondaryExercises(String muscle) {
+        return secondaryExercises.getOrDefault(muscle, new BitSet());
+    }
+
+    /**
+     * sets or clears the bit of an exercise for each of the given muscles
+     * @param index: the bitsets by muscle
+     * @param muscles: the muscles
+     * @param id: the id of the exercise
+     * @param value: whether to set the bit
+     */
+    private static void setBits(TreeMap<String, BitSet> index, List<String> muscles, int id, boolean value) {
+        for (String muscle : muscles) {
+            if (muscle.isBlank()) {
+                continue;
+            }
+            if (value) {
+                index.computeIfAbsent(muscle, m -> new BitSet()).set(id);
+                continue;
+            }
+            BitSet exercises = index.get(muscle);
+            if (exercises != null) {
+                exercises.clear(id);
+                if (exercises.isEmpty()) {
+                    index.remove(muscle);
+                }
+            }
+        }
+    }
+}
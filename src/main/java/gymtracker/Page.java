@@ -0,0 +1,50 @@
+package gymtracker;
+
+/**
+ * Class for choosing which part of a long listing is printed.
+ * A page skips a number of rows and then prints at most a limited number
+ * of rows. The next page of a listing continues after a cursor, the date
+ * and id of the last printed set, so that it starts at the right set even
+ * if sets were added or removed in between.
+ */
+public class Page {
+    public final static int UNLIMITED = Integer.MAX_VALUE;
+
+    public int offset;
+    public int limit;
+    public int afterDay;
+    public int afterId;
+
+    /**
+     * Constructor for the first page of a listing
+     * @param offset: the number of rows to skip
+     * @param limit: the largest number of rows to print
+     */
+    public Page(int offset, int limit) {
+        this.offset = offset;
+        this.limit = limit;
+        this.afterDay = Integer.MIN_VALUE;
+        this.afterId = 0;
+    }
+
+    /**
+     * creates a page that prints the whole listing
+     * @return the page
+     */
+    public static Page all() {
+        return new Page(0, UNLIMITED);
+    }
+
+    /**
+     * creates the page that continues after a row
+     * @param day: the date of the row as an epoch day
+     * @param id: the id of the row
+     * @return the next page, with the same limit as this page
+     */
+    public Page after(int day, int id) {
+        Page next = new Page(0, limit);
+        next.afterDay = day;
+        next.afterId = id;
+        return next;
+    }
+}
@@ -0,0 +1,162 @@
+package gymtracker;
+
+import java.text.DecimalFormat;
+import java.time.LocalDate;
+
+/**
+ * Class for printing long listings one page at a time. Rows are formatted
+ * into a buffer that is reused for every listing and written to the output
+ * whenever it fills up, so printing takes the same memory however many rows
+ * there are.
+ */
+public class PagedOutput {
+    private final static int FLUSH_SIZE = 1 << 14;
+    private final static String LINE_SEPARATOR = System.lineSeparator();
+
+    private StringBuilder buffer;
+    private Page page;
+    private int skipped;
+    private int printed;
+    private int lastDay;
+    private int lastId;
+    private boolean more;
+
+    public PagedOutput() {
+        this.buffer = new StringBuilder(FLUSH_SIZE * 2);
+    }
+
+    /**
+     * starts printing a page of a listing
+     * @param pageToPrint: the part of the listing to print
+     */
+    public void start(Page pageToPrint) {
+        this.page = pageToPrint;
+        this.skipped = 0;
+        this.printed = 0;
+        this.more = false;
+        buffer.setLength(0);
+    }
+
+    /**
+     * starts a row if it belongs to the page. Rows must be passed in listing order.
+     * @param day: the date of the row as an epoch day
+     * @param id: the id of the row
+     * @return whether the row should be printed
+     */
+    public boolean startRow(int day, int id) {
+        if (skipped < page.offset) {
+            skipped++;
+            return false;
+        }
+        if (printed == page.limit) {
+            more = true;
+            return false;
+        }
+        printed++;
+        lastDay = day;
+        lastId = id;
+        return true;
+    }
+
+    /**
+     * tells whether the page is full and the rest of the listing can be skipped
+     * @return whether no more rows are printed
+     */
+    public boolean isFull() {
+        return more;
+    }
+
+    public PagedOutput append(String text) {
+        buffer.append(text);
+        return this;
+    }
+
+    public PagedOutput append(int number) {
+        buffer.append(number);
+        return this;
+    }
+
+    /**
+     * appends a weight with at most two decimals, in the same way as the format "0.##"
+     * @param weight: the weight
+     * @return this output
+     */
+    public PagedOutput appendWeight(float weight) {
+        double hundredths = Math.rint(weight * 100.0);
+        if (Math.abs(hundredths) >= Long.MAX_VALUE / 2) {
+            buffer.append(new DecimalFormat("0.##").format(weight));
+            return this;
+        }
+        long value = (long) hundredths;
+        if (value < 0) {
+            buffer.append('-');
+            value = -value;
+        }
+        buffer.append(value / 100);
+        long decimals = value % 100;
+        if (decimals != 0) {
+            buffer.append('.').append(decimals / 10);
+            if (decimals % 10 != 0) {
+                buffer.append(decimals % 10);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * appends a date in the format 2024-01-31
+     * @param day: the date as an epoch day
+     * @return this output
+     */
+    public PagedOutput appendDate(int day) {
+        LocalDate date = LocalDate.ofEpochDay(day);
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            buffer.append(date);
+            return this;
+        }
+        appendDigits(year, 4);
+        buffer.append('-');
+        appendDigits(date.getMonthValue(), 2);
+        buffer.append('-');
+        return appendDigits(date.getDayOfMonth(), 2);
+    }
+
+    /**
+     * ends a row and writes the buffer to the output if it is full
+     */
+    public void endRow() {
+        buffer.append(LINE_SEPARATOR);
+        if (buffer.length() >= FLUSH_SIZE) {
+            System.out.append(buffer);
+            buffer.setLength(0);
+        }
+    }
+
+    /**
+     * writes the rest of the page to the output
+     * @return the next page of the listing or null if the listing has no more rows
+     */
+    public Page finish() {
+        System.out.append(buffer);
+        System.out.flush();
+        buffer.setLength(0);
+        return more ? page.after(lastDay, lastId) : null;
+    }
+
+    /**
+     * appends a number padded with zeros
+     * @param number: a number that is not negative
+     * @param digits: the smallest number of digits
+     * @return this output
+     */
+    private PagedOutput appendDigits(int number, int digits) {
+        for (int limit = 10; digits > 1; digits--, limit *= 10) {
+            if (number < limit) {
+                buffer.append('0');
+            }
+        }
+        buffer.append(number);
+        return this;
+    }
+}
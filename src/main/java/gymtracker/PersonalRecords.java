@@ -0,0 +1,70 @@
+package gymtracker;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Class for the personal records of one exercise, the heaviest weight lifted
+ * for each rep count. Weights are kept as counted values so that removing a
+ * set falls back to the previous record.
+ */
+public class PersonalRecords {
+    private TreeMap<Integer, TreeMap<Float, Integer>> weightsByReps;
+
+    public PersonalRecords() {
+        this.weightsByReps = new TreeMap<>();
+    }
+
+    /**
+     * tells whether a set would beat the heaviest weight lifted for the same or a higher rep count
+     * @param weight: the weight of the set
+     * @param reps: the reps of the set
+     * @return whether the set is a personal record
+     */
+    public boolean isRecord(float weight, int reps) {
+        for (TreeMap<Float, Integer> weights : weightsByReps.tailMap(reps, true).values()) {
+            if (weights.lastKey() >= weight) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * counts a set into the records
+     * @param weight: the weight of the set
+     * @param reps: the reps of the set
+     */
+    public void add(float weight, int reps) {
+        weightsByReps.computeIfAbsent(reps, r -> new TreeMap<>()).merge(weight, 1, Integer::sum);
+    }
+
+    /**
+     * removes a set that was counted earlier from the records
+     * @param weight: the weight of the set
+     * @param reps: the reps of the set
+     */
+    public void remove(float weight, int reps) {
+        TreeMap<Float, Integer> weights = weightsByReps.get(reps);
+        weights.computeIfPresent(weight, (w, count) -> count == 1 ? null : count - 1);
+        if (weights.isEmpty()) {
+            weightsByReps.remove(reps);
+        }
+    }
+
+    public boolean isEmpty() {
+        return weightsByReps.isEmpty();
+    }
+
+    /**
+     * returns the heaviest weight lifted for each rep count
+     * @return the weights by rep count in increasing order of reps
+     */
+    public TreeMap<Integer, Float> bestWeights() {
+        TreeMap<Integer, Float> bestWeights = new TreeMap<>();
+        for (Map.Entry<Integer, TreeMap<Float, Integer>> entry : weightsByReps.entrySet()) {
+            bestWeights.put(entry.getKey(), entry.getValue().lastKey());
+        }
+        return bestWeights;
+    }
+}
@@ -0,0 +1,68 @@
+package gymtracker;
+
+/**
+ * Interface for reading and writing one type of record in the text format of the data files.
+ * A record is written as one "field:value" line per field followed by an "end" line.
+ * @param <T>: the type of the records
+ */
+public interface RecordCodec<T> {
+    String NEWLINE = System.lineSeparator();
+
+    /**
+     * creates an empty record for fields to be read into
+     * @return the new record
+     */
+    T newRecord();
+
+    /**
+     * reads the value of one field into a record
+     * @param record: the record being read
+     * @param name: the name of the field
+     * @param value: the value of the field as written in the file
+     * @throws IllegalArgumentException, if the field is unknown or its value cannot be read
+     */
+    void readField(T record, String name, String value) throws IllegalArgumentException;
+
+    /**
+     * writes all fields of a record and the closing "end" line
+     * @param record: the record to be written
+     * @param output: where the lines are appended
+     */
+    void write(T record, StringBuilder output);
+
+    /**
+     * removes the quotes around a string value
+     * @param value: the quoted value
+     * @return the value without quotes
+     */
+    static String unquote(String value) {
+        return value.substring(1, value.length()-1);
+    }
+
+    /**
+     * appends a string value with quotes around it
+     * @param value: the value to be written
+     * @param output: where the value is appended
+     */
+    static void writeQuoted(String value, StringBuilder output) {
+        output.append('"').append(value).append('"');
+    }
+
+    /**
+     * appends a number with exactly two decimals, rounding half up
+     * @param value: the number to be written
+     * @param output: where the number is appended
+     */
+    static void writeTwoDecimals(float value, StringBuilder output) {
+        long hundredths = Math.round(Math.abs((double) value) * 100);
+        if (value < 0 && hundredths != 0) {
+            output.append('-');
+        }
+        output.append(hundredths / 100).append('.');
+        long decimals = hundredths % 100;
+        if (decimals < 10) {
+            output.append('0');
+        }
+        output.append(decimals);
+    }
+}
@@ -0,0 +1,45 @@
+package gymtracker;
+
+import java.time.LocalDate;
+
+/**
+ * Class for the totals of one exercise over one week or month
+ */
+public class Rollup {
+    public final static String WEEK = "week";
+    public final static String MONTH = "month";
+
+    public int exerciseId;
+    public String period;
+    public String start;
+    public long volume; // sum of weight times reps in hundredths of a kilogram
+    public int sets;
+    public float maxWeight;
+    int startDay;
+
+    /**
+     * returns the last day of the week or month
+     * @return the day as an epoch day
+     */
+    public int endDay() {
+        LocalDate first = LocalDate.ofEpochDay(startDay);
+        LocalDate next = period.equals(WEEK) ? first.plusWeeks(1) : first.plusMonths(1);
+        return (int) next.toEpochDay() - 1;
+    }
+
+    /**
+     * creates a copy of the rollup that later changes to the rollup do not affect
+     * @return the copy
+     */
+    public Rollup copy() {
+        Rollup copy = new Rollup();
+        copy.exerciseId = exerciseId;
+        copy.period = period;
+        copy.start = start;
+        copy.volume = volume;
+        copy.sets = sets;
+        copy.maxWeight = maxWeight;
+        copy.startDay = startDay;
+        return copy;
+    }
+}
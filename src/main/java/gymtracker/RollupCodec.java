@@ -0,0 +1,54 @@
+package gymtracker;
+
+import java.math.BigDecimal;
+
+/**
+ * Class for reading and writing rollups in the text format of the data files
+ */
+public class RollupCodec implements RecordCodec<Rollup> {
+    @Override
+    public Rollup newRecord() {
+        return new Rollup();
+    }
+
+    @Override
+    public void readField(Rollup rollup, String name, String value) throws IllegalArgumentException {
+        switch (name) {
+            case "exerciseId":
+                rollup.exerciseId = Integer.parseInt(value);
+                break;
+            case "period":
+                rollup.period = RecordCodec.unquote(value);
+                break;
+            case "start":
+                rollup.start = RecordCodec.unquote(value);
+                rollup.startDay = (int) Set.parseDate(rollup.start).toEpochDay();
+                break;
+            case "volume":
+                rollup.volume = new BigDecimal(value).movePointRight(2).longValueExact();
+                break;
+            case "sets":
+                rollup.sets = Integer.parseInt(value);
+                break;
+            case "maxWeight":
+                rollup.maxWeight = Float.parseFloat(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown field for rollup: " + name);
+        }
+    }
+
+    @Override
+    public void write(Rollup rollup, StringBuilder output) {
+        output.append("exerciseId:").append(rollup.exerciseId);
+        output.append(NEWLINE).append("period:");
+        RecordCodec.writeQuoted(rollup.period, output);
+        output.append(NEWLINE).append("start:");
+        RecordCodec.writeQuoted(rollup.start, output);
+        output.append(NEWLINE).append("volume:").append(BigDecimal.valueOf(rollup.volume, 2).toPlainString());
+        output.append(NEWLINE).append("sets:").append(rollup.sets);
+        output.append(NEWLINE).append("maxWeight:");
+        RecordCodec.writeTwoDecimals(rollup.maxWeight, output);
+        output.append(NEWLINE).append("end").append(NEWLINE);
+    }
+}
@@ -0,0 +1,182 @@
+package gymtracker;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Class for weekly and monthly totals of every exercise, kept up to date
+ * as sets are added and removed so that long range reports do not have to
+ * read the sets.
+ */
+public class Rollups {
+    private HashMap<Integer, TreeMap<Integer, Rollup>> weekly;
+    private HashMap<Integer, TreeMap<Integer, Rollup>> monthly;
+
+    /**
+     * Interface for finding the heaviest set of an exercise between two dates,
+     * used when the heaviest set of a week or month is removed
+     */
+    public interface MaxWeight {
+        float between(int exerciseId, int firstDay, int lastDay);
+    }
+
+    public Rollups() {
+        this.weekly = new HashMap<>();
+        this.monthly = new HashMap<>();
+    }
+
+    /**
+     * counts a set into the totals of its week and month
+     * @param day: the date of the set as an epoch day
+     * @param exerciseId: the id of the set's exercise
+     * @param weight: the weight of the set
+     * @param reps: the reps of the set
+     */
+    public void add(int day, int exerciseId, float weight, int reps) {
+        long volume = Math.round(weight * 100) * (long) reps;
+        for (Rollup rollup : new Rollup[] {
+                rollupFor(weekly, Rollup.WEEK, weekStart(day), exerciseId),
+                rollupFor(monthly, Rollup.MONTH, monthStart(day), exerciseId)}) {
+            rollup.volume += volume;
+            rollup.maxWeight = rollup.sets == 0 ? weight : Math.max(rollup.maxWeight, weight);
+            rollup.sets++;
+        }
+    }
+
+    /**
+     * removes a set that was counted earlier from the totals of its week and month.
+     * The set must already be removed from the sets that maxWeight looks at.
+     * @param day: the date of the set as an epoch day
+     * @param exerciseId: the id of the set's exercise
+     * @param weight: the weight of the set
+     * @param reps: the reps of the set
+     * @param maxWeight: finds the heaviest remaining set if the removed set was the heaviest
+     */
+    public void remove(int day, int exerciseId, float weight, int reps, MaxWeight maxWeight) {
+        long volume = Math.round(weight * 100) * (long) reps;
+        removeFrom(weekly, weekStart(day), exerciseId, weight, volume, maxWeight);
+        removeFrom(monthly, monthStart(day), exerciseId, weight, volume, maxWeight);
+    }
+
+    /**
+     * adds a rollup read from a file
+     * @param rollup: the rollup
+     */
+    public void load(Rollup rollup) {
+        HashMap<Integer, TreeMap<Integer, Rollup>> rollups = rollup.period.equals(Rollup.WEEK) ? weekly : monthly;
+        rollups.computeIfAbsent(rollup.exerciseId, id -> new TreeMap<>()).put(rollup.startDay, rollup);
+    }
+
+    /**
+     * removes every rollup of an exercise
+     * @param exerciseId: the id of the exercise
+     */
+    public void removeExercise(int exerciseId) {
+        weekly.remove(exerciseId);
+        monthly.remove(exerciseId);
+    }
+
+    /**
+     * removes every rollup
+     */
+    public void clear() {
+        weekly.clear();
+        monthly.clear();
+    }
+
+    /**
+     * returns the weekly totals of an exercise
+     * @param exerciseId: the id of the exercise
+     * @return the rollups in order of date
+     */
+    public Collection<Rollup> weekly(int exerciseId) {
+        TreeMap<Integer, Rollup> rollups = weekly.get(exerciseId);
+        return rollups != null ? rollups.values() : Collections.emptyList();
+    }
+
+    /**
+     * returns the monthly totals of an exercise
+     * @param exerciseId: the id of the exercise
+     * @return the rollups in order of date
+     */
+    public Collection<Rollup> monthly(int exerciseId) {
+        TreeMap<Integer, Rollup> rollups = monthly.get(exerciseId);
+        return rollups != null ? rollups.values() : Collections.emptyList();
+    }
+
+    /**
+     * creates copies of every rollup that later changes do not affect
+     * @return the copies
+     */
+    public ArrayList<Rollup> copy() {
+        ArrayList<Rollup> copies = new ArrayList<>();
+        for (HashMap<Integer, TreeMap<Integer, Rollup>> rollups : List.of(weekly, monthly)) {
+            for (TreeMap<Integer, Rollup> rollupsOfExercise : rollups.values()) {
+                for (Rollup rollup : rollupsOfExercise.values()) {
+                    copies.add(rollup.copy());
+                }
+            }
+        }
+        return copies;
+    }
+
+    /**
+     * returns the rollup of an exercise for a week or month, creating it if needed
+     * @param rollups: the weekly or monthly rollups
+     * @param period: the period of the rollups
+     * @param startDay: the first day of the week or month as an epoch day
+     * @param exerciseId: the id of the exercise
+     * @return the rollup
+     */
+    private static Rollup rollupFor(HashMap<Integer, TreeMap<Integer, Rollup>> rollups, String period,
+            int startDay, int exerciseId) {
+        return rollups.computeIfAbsent(exerciseId, id -> new TreeMap<>()).computeIfAbsent(startDay, d -> {
+            Rollup rollup = new Rollup();
+            rollup.exerciseId = exerciseId;
+            rollup.period = period;
+            rollup.startDay = startDay;
+            rollup.start = LocalDate.ofEpochDay(startDay).toString();
+            return rollup;
+        });
+    }
+
+    /**
+     * removes a set from one rollup, dropping the rollup when it has no sets left
+     * @param rollups: the weekly or monthly rollups
+     * @param startDay: the first day of the week or month as an epoch day
+     * @param exerciseId: the id of the set's exercise
+     * @param weight: the weight of the set
+     * @param volume: the volume of the set in hundredths
+     * @param maxWeight: finds the heaviest remaining set
+     */
+    private static void removeFrom(HashMap<Integer, TreeMap<Integer, Rollup>> rollups, int startDay,
+            int exerciseId, float weight, long volume, MaxWeight maxWeight) {
+        TreeMap<Integer, Rollup> rollupsOfExercise = rollups.get(exerciseId);
+        Rollup rollup = rollupsOfExercise.get(startDay);
+        rollup.volume -= volume;
+        rollup.sets--;
+        if (rollup.sets == 0) {
+            rollupsOfExercise.remove(startDay);
+            if (rollupsOfExercise.isEmpty()) {
+                rollups.remove(exerciseId);
+            }
+        }
+        else if (weight >= rollup.maxWeight) {
+            rollup.maxWeight = maxWeight.between(exerciseId, rollup.startDay, rollup.endDay());
+        }
+    }
+
+    private static int weekStart(int day) {
+        return (int) LocalDate.ofEpochDay(day).with(DayOfWeek.MONDAY).toEpochDay();
+    }
+
+    private static int monthStart(int day) {
+        return (int) LocalDate.ofEpochDay(day).withDayOfMonth(1).toEpochDay();
+    }
+}
@@ -0,0 +1,363 @@
+package gymtracker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * Class for running a file of commands without a user. The whole script is
+ * checked before it is run, so a script with a line that cannot be parsed
+ * changes nothing. The commands are then run without messages, except for
+ * the output of print and import commands, by attaching a muted session to
+ * the thread's SessionOutput, so other threads keep printing. Commands that would prompt the user read
+ * the answers from the lines that follow them.
+ */
+public class Script {
+    private final static int EXERCISE_PROMPTS = 4;
+    private final static int SET_PROMPTS = 4;
+
+    private Athletes athletes;
+    private String athlete;
+    private Data data;
+    private SessionOutput sessionOutput;
+    private PrintStream output;
+    private PrintStream quiet;
+    private int lineNumber;
+    private int failedCommands;
+
+    /**
+     * Constructor for running scripts against the data of the athletes
+     * @param athletes: for accessing the database of each athlete
+     */
+    public Script(Athletes athletes) {
+        this.athletes = athletes;
+        this.quiet = new PrintStream(OutputStream.nullOutputStream());
+    }
+
+    /**
+     * checks a script and then runs it, starting with the data of the default athlete
+     * @param path: path to the script file
+     * @return the number of commands run or -1 if the script could not be read or parsed
+     */
+    public int run(Path path) {
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            if (run(reader) < 0) {
+                System.out.println("Script has an error on line " + lineNumber + ", nothing was changed.");
+                return -1;
+            }
+        }
+        catch (IOException e) {
+            System.out.println("Unable to read script: " + e.getMessage());
+            return -1;
+        }
+
+        sessionOutput = SessionOutput.install();
+        output = sessionOutput.current();
+        sessionOutput.attach(quiet);
+        athlete = Athletes.DEFAULT_ATHLETE;
+        data = athletes.use(athlete);
+        if (data == null) {
+            sessionOutput.attach(output);
+            return -1;
+        }
+        data.beginBatch();
+        failedCommands = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            return run(reader);
+        }
+        catch (IOException e) {
+            output.println("Unable to read script: " + e.getMessage());
+            return -1;
+        }
+        finally {
+            sessionOutput.attach(output);
+            data.endBatch();
+            athletes.release(athlete);
+            data = null;
+        }
+    }
+
+    /**
+     * returns the number of commands that failed in the last run, such as
+     * sets added for exercises that do not exist
+     * @return the number of failed commands
+     */
+    public int failedCommands() {
+        return failedCommands;
+    }
+
+    /**
+     * goes through the commands of a script, running them if an athlete is in use
+     * and otherwise only checking them
+     * @param reader: for reading the script
+     * @return the number of commands or -1 if a line cannot be parsed
+     * @throws IOException, if the script cannot be read
+     */
+    private int run(BufferedReader reader) throws IOException {
+        lineNumber = 0;
+        int commands = 0;
+        String line;
+        while ((line = nextLine(reader)) != null) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] input = line.split(" ");
+            if (input[0].equals("quit")) {
+                break;
+            }
+            int commandLine = lineNumber;
+            if (!runCommand(input, reader)) {
+                if (data == null) {
+                    return -1;
+                }
+                failedCommands++;
+                System.err.println("Command on line " + commandLine + " failed: " + line);
+            }
+            commands++;
+        }
+        return commands;
+    }
+
+    /**
+     * parses a command and runs it if an athlete is in use
+     * @param input: the command split by spaces
+     * @param reader: for reading the answers to prompts
+     * @return whether the command could be parsed and, when run, succeeded
+     * @throws IOException, if the script cannot be read
+     */
+    private boolean runCommand(String[] input, BufferedReader reader) throws IOException {
+        String[] tailOfInput = Arrays.copyOfRange(input, 1, input.length);
+        switch (input[0]) {
+            case "add":
+                return add(tailOfInput, reader);
+            case "delete":
+                return delete(tailOfInput);
+            case "modify":
+                return modify(tailOfInput, reader);
+            case "clear":
+                if (tailOfInput.length != 1
+                    || (!tailOfInput[0].equals("exercises") && !tailOfInput[0].equals("sets"))) {
+                    return false;
+                }
+                if (data != null && tailOfInput[0].equals("exercises")) {
+                    data.clearExercises();
+                }
+                else if (data != null) {
+                    data.clearSets();
+                }
+                return true;
+            case "print":
+                return print(tailOfInput);
+            case "compact":
+                return data == null || data.compact(true);
+            case "convert":
+                if (tailOfInput.length != 2 || !tailOfInput[0].equals("sets")
+                    || (!tailOfInput[1].equals("binary") && !tailOfInput[1].equals("text"))) {
+                    return false;
+                }
+                return data == null || data.convertSetSnapshots(tailOfInput[1].equals("binary"));
+            case "import":
+                if (data == null) {
+                    return App.importFromInput(tailOfInput) != null;
+                }
+                sessionOutput.attach(output);
+                try {
+                    Predicate<Data> importer = App.importFromInput(tailOfInput);
+                    return importer != null && importer.test(data);
+                }
+                finally {
+                    sessionOutput.attach(quiet);
+                }
+            case "use":
+                if (tailOfInput.length != 1) {
+                    return false;
+                }
+                if (data != null) {
+                    Data athleteData = athletes.use(tailOfInput[0]);
+                    if (athleteData == null) {
+                        return false;
+                    }
+                    data.endBatch();
+                    athletes.release(athlete);
+                    athlete = tailOfInput[0];
+                    data = athleteData;
+                    data.beginBatch();
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * handles commands starting with "add"
+     * @param input: command split by spaces
+     * @param reader: for reading the answers to prompts
+     * @return whether the command could be parsed and, when run, succeeded
+     * @throws IOException, if the script cannot be read
+     */
+    private boolean add(String[] input, BufferedReader reader) throws IOException {
+        if (input.length == 0) {
+            return false;
+        }
+        String rawInput = String.join(" ", Arrays.copyOfRange(input, 1, input.length));
+        if (input[0].equals("exercise")) {
+            if (rawInput.isEmpty()) {
+                rawInput = answers(reader, EXERCISE_PROMPTS);
+            }
+            Exercise newExercise = rawInput != null ? App.exerciseFromInput(rawInput) : null;
+            return newExercise != null && (data == null || data.addExercise(newExercise));
+        }
+        if (input[0].equals("set")) {
+            if (rawInput.isEmpty()) {
+                rawInput = answers(reader, SET_PROMPTS);
+            }
+            Set newSet = rawInput != null ? App.setFromInput(rawInput) : null;
+            return newSet != null && (data == null || data.addSet(newSet));
+        }
+        return false;
+    }
+
+    /**
+     * handles commands starting with "delete"
+     * @param input: command split by spaces
+     * @return whether the command could be parsed and, when run, succeeded
+     */
+    private boolean delete(String[] input) {
+        if (input.length == 0) {
+            return false;
+        }
+        if (input[0].equals("set") && input.length == 1) {
+            return data == null || data.deleteLastSet();
+        }
+        if (input[0].equals("set") && input.length == 2) {
+            Integer id = App.idFromInput(input[1]);
+            return id != null && (data == null || data.deleteSet(id));
+        }
+        if (input[0].equals("exercise")) {
+            boolean withSets = input[input.length-1].equals("--with-sets");
+            int nameEnd = withSets ? input.length-1 : input.length;
+            return nameEnd >= 2 && (data == null
+                || data.deleteExercise(String.join(" ", Arrays.copyOfRange(input, 1, nameEnd)), withSets));
+        }
+        return false;
+    }
+
+    /**
+     * handles commands starting with "modify"
+     * @param input: command split by spaces
+     * @param reader: for reading the answers to prompts
+     * @return whether the command could be parsed and, when run, succeeded
+     * @throws IOException, if the script cannot be read
+     */
+    private boolean modify(String[] input, BufferedReader reader) throws IOException {
+        if (input.length >= 2 && input[0].equals("set")) {
+            Integer id = App.idFromInput(input[1]);
+            if (id == null) {
+                return false;
+            }
+            String rawInput = String.join(" ", Arrays.copyOfRange(input, 2, input.length));
+            if (rawInput.isEmpty()) {
+                rawInput = answers(reader, SET_PROMPTS);
+            }
+            Set newValues = rawInput != null ? App.setFromInput(rawInput) : null;
+            return newValues != null && (data == null || data.modifySet(id, newValues));
+        }
+        if (input.length != 2 || !input[0].equals("exercise")) {
+            return false;
+        }
+        String field = input[1];
+        if (!field.equals("name") && !field.equals("primary") && !field.equals("secondary")
+            && !field.equals("type")) {
+            return false;
+        }
+        String exercise = nextLine(reader);
+        String newValue = nextLine(reader);
+        if (exercise == null || newValue == null) {
+            return false;
+        }
+        if (data == null) {
+            return true;
+        }
+        switch (field) {
+            case "name":
+                data.modifyExerciseName(exercise, newValue);
+                break;
+            case "primary":
+                data.modifyExercisePrimaryMuscles(exercise, newValue.split(", "));
+                break;
+            case "secondary":
+                data.modifyExerciseSecondaryMuscles(exercise, newValue.split(", "));
+                break;
+            default:
+                data.modifyExerciseType(exercise, newValue);
+        }
+        return true;
+    }
+
+    /**
+     * handles commands starting with "print". Listings are printed whole unless paging options are given.
+     * @param input: command split by spaces
+     * @return whether the command could be parsed
+     */
+    private boolean print(String[] input) {
+        if (data == null) {
+            String[] printInput = App.pageFromInput(input, Page.all());
+            return printInput != null && App.printFromInput(printInput) != null;
+        }
+        sessionOutput.attach(output);
+        try {
+            Page page = Page.all();
+            String[] printInput = App.pageFromInput(input, page);
+            BiFunction<Data, Page, Page> print = printInput != null ? App.printFromInput(printInput) : null;
+            if (print == null) {
+                return false;
+            }
+            print.apply(data, page);
+            return true;
+        }
+        finally {
+            sessionOutput.attach(quiet);
+        }
+    }
+
+    /**
+     * reads the answers to the prompts of a command from the following lines
+     * @param reader: for reading the script
+     * @param count: the number of answers
+     * @return the answers in the format of a command without prompts or null if the script ends
+     * @throws IOException, if the script cannot be read
+     */
+    private String answers(BufferedReader reader, int count) throws IOException {
+        ArrayList<String> answers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String line = nextLine(reader);
+            if (line == null) {
+                return null;
+            }
+            answers.add(String.join(",", line.split(", ")));
+        }
+        return String.join(";", answers);
+    }
+
+    /**
+     * reads the next line of the script and counts it
+     * @param reader: for reading the script
+     * @return the line or null if the script ends
+     * @throws IOException, if the script cannot be read
+     */
+    private String nextLine(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line != null) {
+            lineNumber++;
+        }
+        return line;
+    }
+}
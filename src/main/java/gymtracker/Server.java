@@ -0,0 +1,112 @@
+package gymtracker;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class for serving the command language of the app to clients over a local
+ * TCP socket. Every connection is handled on its own thread as a session
+ * of its own, and all sessions share the loaded data of the athletes.
+ */
+public class Server {
+    private Athletes athletes;
+    private ServerSocket serverSocket;
+    private SessionOutput output;
+    private ExecutorService sessions;
+
+    /**
+     * Constructor that starts listening for connections on the loopback address
+     * @param athletes: the data of the athletes, shared by all sessions
+     * @param port: the port to listen on, or 0 for any free port
+     * @throws IOException, if the port cannot be opened
+     */
+    public Server(Athletes athletes, int port) throws IOException {
+        this.athletes = athletes;
+        this.serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        this.sessions = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "session");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.output = SessionOutput.install();
+    }
+
+    /**
+     * returns the port the server listens on
+     * @return the port
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * accepts connections until the server is closed
+     */
+    public void run() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessions.execute(() -> serve(socket));
+            }
+            catch (SocketException e) {
+                // the server was closed
+            }
+            catch (IOException e) {
+                System.err.println("Unable to accept connection: " + e);
+            }
+        }
+    }
+
+    /**
+     * stops accepting connections and ends the running sessions
+     */
+    public void close() {
+        try {
+            serverSocket.close();
+        }
+        catch (IOException e) {
+            System.err.println("Unable to close server: " + e);
+        }
+        sessions.shutdownNow();
+        try {
+            sessions.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * runs commands from one connection until the client quits or disconnects
+     * @param socket: the connection
+     */
+    private void serve(Socket socket) {
+        try (socket;
+                Scanner input = new Scanner(socket.getInputStream(), StandardCharsets.UTF_8);
+                PrintStream sessionOutput = new PrintStream(
+                    new BufferedOutputStream(socket.getOutputStream()), true, StandardCharsets.UTF_8)) {
+            output.attach(sessionOutput);
+            App.runCommands(input, athletes);
+        }
+        catch (IOException e) {
+            System.err.println("Connection failed: " + e);
+        }
+        catch (NoSuchElementException e) {
+            // the client disconnected in the middle of a command
+        }
+        finally {
+            output.detach();
+        }
+    }
+}
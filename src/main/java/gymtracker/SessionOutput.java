@@ -0,0 +1,228 @@
+package gymtracker;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * Class for standard output that is shared by several sessions.
+ * Each thread can attach the output of its own session, and everything
+ * the thread prints goes there. Threads without a session print to the
+ * default output.
+ */
+public class SessionOutput extends PrintStream {
+    private PrintStream defaultOutput;
+    private ThreadLocal<PrintStream> sessionOutputs;
+
+    /**
+     * Constructor for an output that prints to the default output until a session is attached
+     * @param defaultOutput: the output of threads without a session
+     */
+    public SessionOutput(PrintStream defaultOutput) {
+        super(defaultOutput, true);
+        this.defaultOutput = defaultOutput;
+        this.sessionOutputs = new ThreadLocal<>();
+    }
+
+    /**
+     * returns the shared output of the program, replacing standard output with one if needed
+     * @return the standard output
+     */
+    public static synchronized SessionOutput install() {
+        if (!(System.out instanceof SessionOutput)) {
+            System.setOut(new SessionOutput(System.out));
+        }
+        return (SessionOutput) System.out;
+    }
+
+    /**
+     * returns where the current thread prints
+     * @return the output of the thread's session or the default output if there is no session
+     */
+    public PrintStream current() {
+        return output();
+    }
+
+    /**
+     * sends everything the current thread prints to the output of a session
+     * @param output: the output of the session
+     */
+    public void attach(PrintStream output) {
+        sessionOutputs.set(output);
+    }
+
+    /**
+     * sends what the current thread prints back to the default output
+     */
+    public void detach() {
+        sessionOutputs.remove();
+    }
+
+    @Override
+    public void write(int b) {
+        output().write(b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        output().write(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() {
+        output().flush();
+    }
+
+    @Override
+    public boolean checkError() {
+        return output().checkError();
+    }
+
+    @Override
+    public void print(boolean b) {
+        output().print(b);
+    }
+
+    @Override
+    public void print(char c) {
+        output().print(c);
+    }
+
+    @Override
+    public void print(int i) {
+        output().print(i);
+    }
+
+    @Override
+    public void print(long l) {
+        output().print(l);
+    }
+
+    @Override
+    public void print(float f) {
+        output().print(f);
+    }
+
+    @Override
+    public void print(double d) {
+        output().print(d);
+    }
+
+    @Override
+    public void print(char[] s) {
+        output().print(s);
+    }
+
+    @Override
+    public void print(String s) {
+        // text without a line break is a prompt, so it is sent before the next input is read
+        PrintStream output = output();
+        output.print(s);
+        output.flush();
+    }
+
+    @Override
+    public void print(Object obj) {
+        output().print(obj);
+    }
+
+    @Override
+    public void println() {
+        output().println();
+    }
+
+    @Override
+    public void println(boolean x) {
+        output().println(x);
+    }
+
+    @Override
+    public void println(char x) {
+        output().println(x);
+    }
+
+    @Override
+    public void println(int x) {
+        output().println(x);
+    }
+
+    @Override
+    public void println(long x) {
+        output().println(x);
+    }
+
+    @Override
+    public void println(float x) {
+        output().println(x);
+    }
+
+    @Override
+    public void println(double x) {
+        output().println(x);
+    }
+
+    @Override
+    public void println(char[] x) {
+        output().println(x);
+    }
+
+    @Override
+    public void println(String x) {
+        output().println(x);
+    }
+
+    @Override
+    public void println(Object x) {
+        output().println(x);
+    }
+
+    @Override
+    public PrintStream printf(String format, Object... args) {
+        output().printf(format, args);
+        return this;
+    }
+
+    @Override
+    public PrintStream printf(Locale l, String format, Object... args) {
+        output().printf(l, format, args);
+        return this;
+    }
+
+    @Override
+    public PrintStream format(String format, Object... args) {
+        output().format(format, args);
+        return this;
+    }
+
+    @Override
+    public PrintStream format(Locale l, String format, Object... args) {
+        output().format(l, format, args);
+        return this;
+    }
+
+    @Override
+    public PrintStream append(CharSequence csq) {
+        output().append(csq);
+        return this;
+    }
+
+    @Override
+    public PrintStream append(CharSequence csq, int start, int end) {
+        output().append(csq, start, end);
+        return this;
+    }
+
+    @Override
+    public PrintStream append(char c) {
+        output().append(c);
+        return this;
+    }
+
+    /**
+     * returns the output of the current thread's session
+     * @return the session output or the default output if there is no session
+     */
+    private PrintStream output() {
+        PrintStream output = sessionOutputs.get();
+        return output != null ? output : defaultOutput;
+    }
+}
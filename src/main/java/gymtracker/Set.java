@@ -1,16 +1,62 @@
 package gymtracker;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
 /**
- * Class for storing set information as an object
+ * Class for passing set information as an object.
+ * Data keeps sets in a SetStore and only creates these as views when needed.
  */
 public class Set {
+    private final static DateTimeFormatter[] DATE_FORMATS = {
+        DateTimeFormatter.ISO_LOCAL_DATE,
+        DateTimeFormatter.ofPattern("d.M.yyyy")
+    };
+    // binary set files store reps in two bytes
+    public final static int MAX_REPS = Character.MAX_VALUE;
+
+    public int id;
     public String date;
-    public String exercise;
+    public int exerciseId;
     public float weight;
     public int reps; 
 
+    String exercise;
+    LocalDate day;
+
+    /**
+     * parses a date given in one of the supported formats (2024-01-31 or 31.1.2024)
+     * @param date: the date as a string
+     * @return the parsed date
+     * @throws DateTimeParseException, if the date is not in a supported format
+     */
+    public static LocalDate parseDate(String date) throws DateTimeParseException {
+        if (date.length() == 10 && date.charAt(4) == '-' && date.charAt(7) == '-') {
+            try {
+                return LocalDate.of(
+                    Integer.parseInt(date, 0, 4, 10),
+                    Integer.parseInt(date, 5, 7, 10),
+                    Integer.parseInt(date, 8, 10, 10));
+            }
+            catch (DateTimeException | NumberFormatException e) {
+                // not a valid ISO date, let the formatters report it
+            }
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(date.trim(), format);
+            }
+            catch (DateTimeParseException e) {
+                continue;
+            }
+        }
+        throw new DateTimeParseException("Unsupported date format", date, 0);
+    }
+
     @Override
     public String toString() {
-        return exercise + " " + date;
+        return "#" + id + " " + exercise + " " + date;
     }
 }
@@ -0,0 +1,51 @@
+package gymtracker;
+
+/**
+ * Class for reading and writing sets in the text format of the data files
+ */
+public class SetCodec implements RecordCodec<Set> {
+    @Override
+    public Set newRecord() {
+        return new Set();
+    }
+
+    @Override
+    public void readField(Set set, String name, String value) throws IllegalArgumentException {
+        switch (name) {
+            case "id":
+                set.id = Integer.parseInt(value);
+                break;
+            case "date":
+                set.date = RecordCodec.unquote(value);
+                set.day = Set.parseDate(set.date);
+                break;
+            case "exerciseId":
+                set.exerciseId = Integer.parseInt(value);
+                break;
+            case "exercise":
+                // files from before exercise ids refer to exercises by name
+                set.exercise = RecordCodec.unquote(value);
+                break;
+            case "weight":
+                set.weight = Float.parseFloat(value);
+                break;
+            case "reps":
+                set.reps = Integer.parseInt(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown field for set: " + name);
+        }
+    }
+
+    @Override
+    public void write(Set set, StringBuilder output) {
+        output.append("id:").append(set.id).append(NEWLINE);
+        output.append("date:");
+        RecordCodec.writeQuoted(set.date, output);
+        output.append(NEWLINE).append("exerciseId:").append(set.exerciseId);
+        output.append(NEWLINE).append("weight:");
+        RecordCodec.writeTwoDecimals(set.weight, output);
+        output.append(NEWLINE).append("reps:").append(set.reps);
+        output.append(NEWLINE).append("end").append(NEWLINE);
+    }
+}
@@ -0,0 +1,317 @@
+package gymtracker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Class for the snapshot of the sets, split into one file per month.
+ * A manifest lists the file of every month and the part of the set log
+ * that the files cover. A compaction writes new files only for the months
+ * that changed and then replaces the manifest, so the files of other months
+ * are never rewritten. The manifest also keeps the next free set id, so that
+ * the ids of deleted sets are not given again after the sets are gone from
+ * the files. Until the manifest is replaced, the old manifest and
+ * the files it lists stay untouched.
+ */
+public class SetPartitions {
+    private final static String MANIFEST = "sets.manifest.txt";
+    private final static String PARTITION_DIRECTORY = "sets";
+    private final static String SNAPSHOT = "snapshot";
+    private final static String VERSION = "version";
+    private final static String FORMAT = "format";
+    private final static String NEXT_ID = "nextId";
+    private final static String BINARY = "binary";
+    private final static String TEXT = "text";
+    private final static String BINARY_EXTENSION = ".bin";
+    private final static String TEXT_EXTENSION = ".txt";
+
+    private FileHandler files;
+    private String directory;
+    private String manifestPath;
+    private long[] header;
+    private long version;
+    private boolean binary;
+    private int nextId;
+    private TreeMap<Integer, String> partitions;
+
+    /**
+     * Constructor that reads the manifest of a data directory if there is one
+     * @param files: for file operations
+     * @param directory: the data directory
+     */
+    public SetPartitions(FileHandler files, String directory) {
+        this.files = files;
+        this.directory = directory;
+        this.manifestPath = directory + "/" + MANIFEST;
+        this.partitions = new TreeMap<>();
+        readManifest();
+    }
+
+    /**
+     * returns the month of a day as a number that grows by one every month
+     * @param day: the day as an epoch day
+     * @return the month
+     */
+    public static int monthOf(int day) {
+        LocalDate date = LocalDate.ofEpochDay(day);
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    /**
+     * returns the first day of a month
+     * @param month: the month as returned by monthOf
+     * @return the day as an epoch day
+     */
+    public static int firstDayOf(int month) {
+        return (int) LocalDate.of(month / 12, month % 12 + 1, 1).toEpochDay();
+    }
+
+    /**
+     * tells whether the sets have been saved in partitions
+     * @return whether there is a manifest
+     */
+    public boolean exist() {
+        return header != null;
+    }
+
+    /**
+     * returns the part of the set log that the partitions cover
+     * @return the generation and byte position of the log or null if there is no manifest
+     */
+    public long[] header() {
+        return header;
+    }
+
+    /**
+     * tells whether the partitions were last written in the binary format
+     * @return whether the format is binary
+     */
+    public boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * returns the id that the next added set gets, as it was when the partitions were written
+     * @return the id or 0 if the manifest does not have one
+     */
+    public int nextId() {
+        return nextId;
+    }
+
+    /**
+     * reads the sets of every partition. The sets are passed on in the order
+     * of their ids, which is the order they were added in. No sets are
+     * passed on if a partition cannot be read.
+     * @param consumer: receives the sets
+     * @return whether the operation succeeded
+     */
+    public boolean read(BinarySetFile.RowConsumer consumer) {
+        ArrayList<SetStore> months = new ArrayList<>();
+        for (String fileName : partitions.values()) {
+            SetStore month = new SetStore();
+            String path = directory + "/" + fileName;
+            if (fileName.endsWith(BINARY_EXTENSION)) {
+                if (!BinarySetFile.read(path, month::add)) {
+                    return false;
+                }
+            }
+            else if (!Files.exists(Path.of(path))) {
+                System.err.println("Set partition " + path + " is missing.");
+                return false;
+            }
+            else if (files.replayLog(path, 0, Set.class,
+                    set -> month.add(set.id, (int) set.day.toEpochDay(), set.exerciseId, set.weight, set.reps)) < 0) {
+                System.err.println("Set partition " + path + " could not be read.");
+                return false;
+            }
+            if (!month.isEmpty()) {
+                months.add(month);
+            }
+        }
+        // every partition is in id order, so merging them gives all sets in id order
+        int[] rows = new int[months.size()];
+        PriorityQueue<Integer> next = new PriorityQueue<>(
+            Math.max(1, months.size()), (a, b) -> Integer.compare(months.get(a).id(rows[a]), months.get(b).id(rows[b])));
+        for (int i = 0; i < months.size(); i++) {
+            next.add(i);
+        }
+        while (!next.isEmpty()) {
+            int i = next.poll();
+            SetStore month = months.get(i);
+            int row = rows[i]++;
+            consumer.accept(month.id(row), month.day(row), month.exercise(row), month.weight(row), month.reps(row));
+            if (rows[i] < month.size()) {
+                next.add(i);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * writes new files for the months that changed and then a manifest that
+     * covers the given part of the set log. Files that are no longer listed
+     * are deleted afterwards.
+     * @param monthSets: copies of the sets of the changed months in id order, by month.
+     * Changed months without sets are left out.
+     * @param changedMonths: the months whose sets changed since the last write
+     * @param binaryFormat: whether to write the files in the binary format
+     * @param generation: the generation of the set log
+     * @param logPosition: the byte position of the set log that the sets cover
+     * @param nextSetId: the id that the next added set gets
+     * @return whether the operation succeeded
+     */
+    public boolean write(TreeMap<Integer, SetStore> monthSets, BitSet changedMonths, boolean binaryFormat,
+            long generation, long logPosition, int nextSetId) {
+        long nextVersion = version + 1;
+        TreeMap<Integer, String> nextPartitions = new TreeMap<>(partitions);
+        ArrayList<String> replacedFiles = new ArrayList<>();
+        try {
+            Files.createDirectories(Path.of(directory, PARTITION_DIRECTORY));
+        }
+        catch (IOException e) {
+            System.err.println("Unable to create directory: " + e);
+            return false;
+        }
+        for (int month = changedMonths.nextSetBit(0); month >= 0; month = changedMonths.nextSetBit(month + 1)) {
+            String oldFile = nextPartitions.remove(month);
+            if (oldFile != null) {
+                replacedFiles.add(oldFile);
+            }
+            SetStore monthStore = monthSets.get(month);
+            if (monthStore == null) {
+                continue;
+            }
+            String fileName = PARTITION_DIRECTORY + "/sets-" + monthName(month) + "." + nextVersion
+                + (binaryFormat ? BINARY_EXTENSION : TEXT_EXTENSION);
+            if (!writePartition(directory + "/" + fileName, monthStore, binaryFormat, generation, logPosition)) {
+                return false;
+            }
+            nextPartitions.put(month, fileName);
+        }
+
+        if (!writeManifest(nextPartitions, nextVersion, binaryFormat, generation, logPosition, nextSetId)) {
+            return false;
+        }
+        this.header = new long[] {generation, logPosition};
+        this.version = nextVersion;
+        this.binary = binaryFormat;
+        this.nextId = nextSetId;
+        this.partitions = nextPartitions;
+        for (String fileName : replacedFiles) {
+            files.deleteFile(directory + "/" + fileName);
+        }
+        return true;
+    }
+
+    /**
+     * reads the manifest, leaving the partitions empty if there is none
+     */
+    private void readManifest() {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(Path.of(manifestPath));
+        }
+        catch (NoSuchFileException e) {
+            return;
+        }
+        catch (IOException e) {
+            System.err.println("Unable to read set manifest: " + e);
+            return;
+        }
+        try {
+            for (String line : lines) {
+                String[] parts = line.split(":");
+                if (parts[0].equals(SNAPSHOT)) {
+                    header = new long[] {Long.parseLong(parts[1]), Long.parseLong(parts[2])};
+                }
+                else if (parts[0].equals(VERSION)) {
+                    version = Long.parseLong(parts[1]);
+                }
+                else if (parts[0].equals(FORMAT)) {
+                    binary = parts[1].equals(BINARY);
+                }
+                else if (parts[0].equals(NEXT_ID)) {
+                    nextId = Integer.parseInt(parts[1]);
+                }
+                else if (parts.length == 2) {
+                    String[] month = parts[0].split("-");
+                    partitions.put(Integer.parseInt(month[0]) * 12 + Integer.parseInt(month[1]) - 1, parts[1]);
+                }
+            }
+        }
+        catch (RuntimeException e) {
+            System.err.println("Incorrect format in set manifest. Unable to read tracking data.");
+            header = null;
+            partitions.clear();
+        }
+    }
+
+    /**
+     * writes a new manifest next to the old one and then replaces it
+     * @param monthFiles: the file of every month
+     * @param manifestVersion: the version of the manifest
+     * @param binaryFormat: whether the files were last written in the binary format
+     * @param generation: the generation of the set log
+     * @param logPosition: the byte position of the set log that the files cover
+     * @param nextSetId: the id that the next added set gets
+     * @return whether the operation succeeded
+     */
+    private boolean writeManifest(TreeMap<Integer, String> monthFiles, long manifestVersion, boolean binaryFormat,
+            long generation, long logPosition, int nextSetId) {
+        ArrayList<String> lines = new ArrayList<>();
+        lines.add(SNAPSHOT + ":" + generation + ":" + logPosition);
+        lines.add(VERSION + ":" + manifestVersion);
+        lines.add(FORMAT + ":" + (binaryFormat ? BINARY : TEXT));
+        lines.add(NEXT_ID + ":" + nextSetId);
+        for (Map.Entry<Integer, String> monthFile : monthFiles.entrySet()) {
+            lines.add(monthName(monthFile.getKey()) + ":" + monthFile.getValue());
+        }
+        String tempPath = manifestPath + ".tmp";
+        try {
+            Files.write(Path.of(tempPath), lines);
+        }
+        catch (IOException e) {
+            System.err.println("Unable to write set manifest: " + e);
+            return false;
+        }
+        return files.replaceFile(tempPath, manifestPath);
+    }
+
+    /**
+     * writes the sets of one month to a new file
+     * @param path: path to the file
+     * @param monthSets: the sets of the month
+     * @param binaryFormat: whether to write the file in the binary format
+     * @param generation: the generation of the set log
+     * @param logPosition: the byte position of the set log that the file covers
+     * @return whether the operation succeeded
+     */
+    private boolean writePartition(String path, SetStore monthSets, boolean binaryFormat,
+            long generation, long logPosition) {
+        if (binaryFormat) {
+            return BinarySetFile.write(path, generation, logPosition, monthSets);
+        }
+        String tempPath = path + ".tmp";
+        return files.writeSnapshotHeader(tempPath, generation, logPosition)
+            && files.writeAllToFile(tempPath, monthSets)
+            && files.replaceFile(tempPath, path);
+    }
+
+    /**
+     * formats a month like "2024-01"
+     * @param month: the month as returned by monthOf
+     * @return the formatted month
+     */
+    private static String monthName(int month) {
+        return String.format("%04d-%02d", month / 12, month % 12 + 1);
+    }
+}
@@ -0,0 +1,286 @@
+package gymtracker;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+
+/**
+ * Class for storing sets column by column in primitive arrays.
+ * Each column is split into fixed size chunks so that growing the store
+ * never copies more than the first chunk, which starts small and doubles
+ * until it has the full size, so that a store of a few sets stays small.
+ * Removing a set from the middle only marks
+ * its row as deleted so that the rows after it keep their positions.
+ */
+public class SetStore implements Iterable<Set> {
+    private final static int CHUNK_BITS = 16;
+    private final static int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private final static int CHUNK_MASK = CHUNK_SIZE - 1;
+    private final static int FIRST_CHUNK_SIZE = 256;
+
+    private ArrayList<int[]> ids;
+    private ArrayList<int[]> days;
+    private ArrayList<int[]> exercises;
+    private ArrayList<float[]> weights;
+    private ArrayList<int[]> reps;
+    private BitSet deleted;
+    private int size;
+    private int deletedCount;
+
+    public SetStore() {
+        this.ids = new ArrayList<>();
+        this.days = new ArrayList<>();
+        this.exercises = new ArrayList<>();
+        this.weights = new ArrayList<>();
+        this.reps = new ArrayList<>();
+        this.deleted = new BitSet();
+        this.size = 0;
+        this.deletedCount = 0;
+    }
+
+    /**
+     * adds a set to the end of the store. Ids must be added in increasing order.
+     * @param id: the id of the set
+     * @param day: the date of the set as an epoch day
+     * @param exercise: the id of the set's exercise
+     * @param weight: the weight of the set
+     * @param repCount: the reps of the set
+     * @return the row of the added set
+     */
+    public int add(int id, int day, int exercise, float weight, int repCount) {
+        int chunk = size >>> CHUNK_BITS;
+        if (chunk == days.size()) {
+            int chunkSize = chunk == 0 ? FIRST_CHUNK_SIZE : CHUNK_SIZE;
+            ids.add(new int[chunkSize]);
+            days.add(new int[chunkSize]);
+            exercises.add(new int[chunkSize]);
+            weights.add(new float[chunkSize]);
+            reps.add(new int[chunkSize]);
+        }
+        else if (chunk == 0 && size == days.get(0).length) {
+            growFirstChunk();
+        }
+        ids.get(chunk)[size & CHUNK_MASK] = id;
+        set(size, day, exercise, weight, repCount);
+        return size++;
+    }
+
+    /**
+     * replaces the values of a set, keeping its id and row
+     * @param row: the row of the set
+     * @param day: the new date of the set as an epoch day
+     * @param exercise: the id of the new exercise of the set
+     * @param weight: the new weight of the set
+     * @param repCount: the new reps of the set
+     */
+    public void set(int row, int day, int exercise, float weight, int repCount) {
+        int chunk = row >>> CHUNK_BITS;
+        int offset = row & CHUNK_MASK;
+        days.get(chunk)[offset] = day;
+        exercises.get(chunk)[offset] = exercise;
+        weights.get(chunk)[offset] = weight;
+        reps.get(chunk)[offset] = repCount;
+    }
+
+    /**
+     * finds the row of a set by its id with a binary search, since ids increase with rows
+     * @param id: the id of the set
+     * @return the row of the set or -1 if there is no such set
+     */
+    public int rowOf(int id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = id(middle);
+            if (middleId < id) {
+                low = middle + 1;
+            }
+            else if (middleId > id) {
+                high = middle - 1;
+            }
+            else {
+                return deleted.get(middle) ? -1 : middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * finds the first row whose set has a larger id than given, with a binary search
+     * @param id: the id
+     * @return the row, or the number of rows if there is no such row
+     */
+    public int firstRowAfter(int id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (id(middle) <= id) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * removes the set that was added last. The last row is never a deleted row.
+     */
+    public void removeLast() {
+        if (size == 0) {
+            throw new IndexOutOfBoundsException(0);
+        }
+        size--;
+        int lastChunk = days.size() - 1;
+        if (lastChunk > 0 && size <= (lastChunk - 1) * CHUNK_SIZE) {
+            ids.remove(lastChunk);
+            days.remove(lastChunk);
+            exercises.remove(lastChunk);
+            weights.remove(lastChunk);
+            reps.remove(lastChunk);
+        }
+    }
+
+    /**
+     * removes a set at any row. The rows of later sets do not change, and
+     * deleted rows at the end of the store are given back.
+     * @param row: the row of the set
+     */
+    public void remove(int row) {
+        if (row >= size || deleted.get(row)) {
+            throw new IndexOutOfBoundsException(row);
+        }
+        deleted.set(row);
+        deletedCount++;
+        while (size > 0 && deleted.get(size-1)) {
+            deleted.clear(size-1);
+            deletedCount--;
+            removeLast();
+        }
+    }
+
+    /**
+     * tells whether the set at a row has been removed
+     * @param row: the row
+     * @return whether the row is deleted
+     */
+    public boolean isDeleted(int row) {
+        return deleted.get(row);
+    }
+
+    /**
+     * removes every set from the store
+     */
+    public void clear() {
+        ids.clear();
+        days.clear();
+        exercises.clear();
+        weights.clear();
+        reps.clear();
+        deleted.clear();
+        size = 0;
+        deletedCount = 0;
+    }
+
+    public int id(int row) {
+        return ids.get(row >>> CHUNK_BITS)[row & CHUNK_MASK];
+    }
+
+    public int day(int row) {
+        return days.get(row >>> CHUNK_BITS)[row & CHUNK_MASK];
+    }
+
+    public int exercise(int row) {
+        return exercises.get(row >>> CHUNK_BITS)[row & CHUNK_MASK];
+    }
+
+    public float weight(int row) {
+        return weights.get(row >>> CHUNK_BITS)[row & CHUNK_MASK];
+    }
+
+    public int reps(int row) {
+        return reps.get(row >>> CHUNK_BITS)[row & CHUNK_MASK];
+    }
+
+    /**
+     * creates a view of a stored set. The exercise name is left for the caller to fill in.
+     * @param row: the row of the set
+     * @return the set
+     */
+    public Set get(int row) {
+        Set set = new Set();
+        set.id = id(row);
+        set.day = LocalDate.ofEpochDay(day(row));
+        set.date = set.day.toString();
+        set.exerciseId = exercise(row);
+        set.weight = weight(row);
+        set.reps = reps(row);
+        return set;
+    }
+
+    @Override
+    public Iterator<Set> iterator() {
+        return new Iterator<>() {
+            private int row = deleted.nextClearBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return row < size;
+            }
+
+            @Override
+            public Set next() {
+                Set set = get(row);
+                row = deleted.nextClearBit(row + 1);
+                return set;
+            }
+        };
+    }
+
+    /**
+     * returns the number of rows, including deleted rows
+     * @return one more than the last row
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * returns the number of sets that have not been removed
+     * @return the number of sets
+     */
+    public int count() {
+        return size - deletedCount;
+    }
+
+    /**
+     * estimates the memory used by the columns of the store
+     * @return the estimate in bytes
+     */
+    public long memoryUse() {
+        // five four byte columns for every allocated row, and one bit per row for deletions
+        long rows = days.isEmpty() ? 0 : days.get(0).length + (long) (days.size() - 1) * CHUNK_SIZE;
+        return rows * 20 + deleted.size() / 8;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * doubles the size of the first chunk of every column
+     */
+    private void growFirstChunk() {
+        int chunkSize = Math.min(days.get(0).length * 2, CHUNK_SIZE);
+        ids.set(0, Arrays.copyOf(ids.get(0), chunkSize));
+        days.set(0, Arrays.copyOf(days.get(0), chunkSize));
+        exercises.set(0, Arrays.copyOf(exercises.get(0), chunkSize));
+        weights.set(0, Arrays.copyOf(weights.get(0), chunkSize));
+        reps.set(0, Arrays.copyOf(reps.get(0), chunkSize));
+    }
+}
@@ -0,0 +1,531 @@
+package gymtracker;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Tool for generating data directories that look like years of real use,
+ * for reproducing how the program behaves with large data. Every athlete
+ * trains a few days a week with skipped sessions and longer breaks, and the
+ * weights of each exercise grow over time with a deload every eighth week.
+ * The files are written with FileHandler, so they are read like any saved
+ * data. A script of added, deleted and modified sets can also be generated
+ * for replaying with --script. The same options and seed always give the
+ * same files.
+ */
+public class WorkloadGenerator {
+    private final static String USAGE =
+        "Usage: java -cp GymTracker.jar gymtracker.WorkloadGenerator [--seed <n>] [--athletes <n>] [--years <n>]"
+        + " [--exercises <n>] [--commands <n>] [--mix <add>:<delete>:<modify>] [--output <directory>]";
+    private final static LocalDate LAST_DAY = LocalDate.of(2024, 12, 31);
+    // name, primary muscles, secondary muscles, type and the weight of five reps for an average athlete
+    private final static String[][] CATALOG = {
+        {"Bench Press", "chest", "triceps,shoulders", "push", "80"},
+        {"Incline Bench Press", "chest", "shoulders,triceps", "push", "65"},
+        {"Dumbbell Bench Press", "chest", "triceps,shoulders", "push", "30"},
+        {"Overhead Press", "shoulders", "triceps,traps", "push", "50"},
+        {"Dumbbell Shoulder Press", "shoulders", "triceps", "push", "22"},
+        {"Dips", "chest,triceps", "shoulders", "push", "10"},
+        {"Lateral Raise", "shoulders", "traps", "push", "10"},
+        {"Triceps Pushdown", "triceps", "", "push", "30"},
+        {"Skull Crusher", "triceps", "", "push", "30"},
+        {"Chest Fly", "chest", "shoulders", "push", "15"},
+        {"Deadlift", "hamstrings,glutes,lower back", "traps,forearms,quads", "pull", "140"},
+        {"Barbell Row", "back,lats", "biceps,rear delts", "pull", "70"},
+        {"Pull-up", "lats", "biceps,back", "pull", "5"},
+        {"Lat Pulldown", "lats", "biceps", "pull", "60"},
+        {"Seated Cable Row", "back", "lats,biceps", "pull", "60"},
+        {"Face Pull", "rear delts", "traps", "pull", "25"},
+        {"Barbell Curl", "biceps", "forearms", "pull", "35"},
+        {"Hammer Curl", "biceps,forearms", "", "pull", "16"},
+        {"Shrug", "traps", "forearms", "pull", "100"},
+        {"Squat", "quads,glutes", "hamstrings,lower back", "legs", "110"},
+        {"Front Squat", "quads", "glutes,abs", "legs", "85"},
+        {"Romanian Deadlift", "hamstrings,glutes", "lower back", "legs", "100"},
+        {"Leg Press", "quads,glutes", "hamstrings", "legs", "180"},
+        {"Bulgarian Split Squat", "quads,glutes", "hamstrings", "legs", "24"},
+        {"Leg Curl", "hamstrings", "calves", "legs", "45"},
+        {"Leg Extension", "quads", "", "legs", "55"},
+        {"Hip Thrust", "glutes", "hamstrings", "legs", "120"},
+        {"Standing Calf Raise", "calves", "", "legs", "80"},
+        {"Cable Crunch", "abs", "obliques", "core", "40"},
+        {"Hanging Leg Raise", "abs", "obliques", "core", "0"},
+        {"Ab Wheel Rollout", "abs", "lower back", "core", "0"},
+        {"Russian Twist", "obliques", "abs", "core", "10"}
+    };
+    private final static String[] VARIATIONS = {"Paused", "Tempo", "Machine", "Cable", "Single-arm", "Banded"};
+    private final static String[] TYPES = {"push", "pull", "legs", "core"};
+    // the reps of every set and their weight relative to the weight of five reps
+    private final static int[][] REP_SCHEMES = {{5, 5, 5, 5, 5}, {8, 8, 8}, {10, 10, 10, 10}, {12, 12, 12}, {12, 10, 8, 6}};
+    private final static float[][] SCHEME_INTENSITIES = {
+        {1f, 1f, 1f, 1f, 1f}, {0.85f, 0.85f, 0.85f}, {0.77f, 0.77f, 0.77f, 0.77f}, {0.72f, 0.72f, 0.72f},
+        {0.72f, 0.77f, 0.84f, 0.9f}
+    };
+    private final static int EXERCISES_PER_SESSION = 4;
+    private final static int WEEKS_PER_PROGRAM = 12;
+    private final static int RECENT_SETS = 50;
+
+    public long seed = 1;
+    public int athleteCount = 1;
+    public int years = 3;
+    public int exerciseCount = CATALOG.length;
+    public int commandCount = 0;
+    public int addWeight = 70;
+    public int deleteWeight = 15;
+    public int modifyWeight = 15;
+    public String output = "target/workload";
+
+    private ArrayList<Exercise> exercises;
+    private float[] baseWeights;
+    private HashMap<String, IntList> exercisesByType;
+    private ArrayList<Athlete> athletes;
+    private long generatedSets;
+
+    /**
+     * Class for the training of one athlete and the sets generated for them.
+     * The date and exercise of every set are kept by id for the commands
+     * that modify sets.
+     */
+    private class Athlete {
+        private String name;
+        private Random random;
+        private float strength;
+        private boolean[] trainingDays;
+        private String[] rotation;
+        private int[] schemes;
+        private HashMap<String, int[]> program;
+        private int firstDay;
+        private int lastDay;
+        private int sessions;
+        private int nextId;
+        private IntList days;
+        private IntList exercisesOfSets;
+        private BitSet deleted;
+        private int deletedCount;
+
+        private Athlete(int index) {
+            this.name = index == 0 ? Athletes.DEFAULT_ATHLETE : "athlete-" + index;
+            this.random = new Random(seed * 1000003 + index);
+            this.strength = 0.6f + random.nextFloat() * 0.8f;
+            int daysPerWeek = 3 + random.nextInt(3);
+            this.trainingDays = new boolean[7];
+            int firstTrainingDay = random.nextInt(2);
+            for (int i = 0; i < daysPerWeek; i++) {
+                trainingDays[(firstTrainingDay + i * 7 / daysPerWeek) % 7] = true;
+            }
+            this.rotation = daysPerWeek == 4
+                ? new String[] {"push", "legs", "pull", "legs"}
+                : new String[] {"push", "pull", "legs"};
+            this.schemes = new int[exercises.size()];
+            for (int i = 0; i < schemes.length; i++) {
+                // heavy lifts are trained with fewer reps
+                schemes[i] = baseWeights[i] >= 60 ? random.nextInt(3) : 1 + random.nextInt(REP_SCHEMES.length - 1);
+            }
+            this.program = new HashMap<>();
+            this.firstDay = (int) LAST_DAY.minusYears(years).toEpochDay() + random.nextInt(90);
+            this.lastDay = firstDay;
+            this.nextId = 1;
+            this.days = new IntList();
+            this.exercisesOfSets = new IntList();
+            this.deleted = new BitSet();
+        }
+    }
+
+    /**
+     * generates a data directory with the options given as arguments
+     * @param args: the options
+     */
+    public static void main(String[] args) {
+        WorkloadGenerator generator = new WorkloadGenerator();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (i + 1 >= args.length) {
+                    System.out.println(USAGE);
+                    return;
+                }
+                switch (args[i]) {
+                    case "--seed":
+                        generator.seed = Long.parseLong(args[++i]);
+                        break;
+                    case "--athletes":
+                        generator.athleteCount = Integer.parseInt(args[++i]);
+                        break;
+                    case "--years":
+                        generator.years = Integer.parseInt(args[++i]);
+                        break;
+                    case "--exercises":
+                        generator.exerciseCount = Integer.parseInt(args[++i]);
+                        break;
+                    case "--commands":
+                        generator.commandCount = Integer.parseInt(args[++i]);
+                        break;
+                    case "--mix":
+                        String[] mix = args[++i].split(":");
+                        generator.addWeight = Integer.parseInt(mix[0]);
+                        generator.deleteWeight = Integer.parseInt(mix[1]);
+                        generator.modifyWeight = Integer.parseInt(mix[2]);
+                        break;
+                    case "--output":
+                        generator.output = args[++i];
+                        break;
+                    default:
+                        System.out.println(USAGE);
+                        return;
+                }
+            }
+        }
+        catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.out.println("Incorrect format for option.");
+            System.out.println(USAGE);
+            return;
+        }
+        generator.generate();
+    }
+
+    /**
+     * writes the exercises and sets of every athlete and the script of commands.
+     * The data of the first athlete is written to the output directory and the
+     * data of the others under it, as the program saves the data of athletes.
+     * @return whether the operation succeeded
+     */
+    public boolean generate() {
+        if (athleteCount < 1 || years < 1 || exerciseCount < TYPES.length || commandCount < 0
+            || addWeight < 0 || deleteWeight < 0 || modifyWeight < 0
+            || addWeight + deleteWeight + modifyWeight == 0) {
+            System.out.println("Generating needs at least one athlete, one year, " + TYPES.length
+                + " exercises and a command mix with a positive weight.");
+            return false;
+        }
+        Path outputPath = Path.of(output);
+        try {
+            if (Files.isDirectory(outputPath)) {
+                try (Stream<Path> contents = Files.list(outputPath)) {
+                    if (contents.findAny().isPresent()) {
+                        System.out.println("Output directory is not empty.");
+                        return false;
+                    }
+                }
+            }
+            Files.createDirectories(outputPath);
+        }
+        catch (IOException e) {
+            System.out.println("Unable to create output directory: " + e.getMessage());
+            return false;
+        }
+
+        long started = System.nanoTime();
+        createCatalog();
+        athletes = new ArrayList<>();
+        generatedSets = 0;
+        FileHandler files = new FileHandler(Durability.onQuit(), false);
+        try {
+            for (int i = 0; i < athleteCount; i++) {
+                Athlete athlete = new Athlete(i);
+                athletes.add(athlete);
+                if (!writeAthlete(files, athlete)) {
+                    return false;
+                }
+            }
+        }
+        finally {
+            files.close();
+        }
+        if (commandCount > 0 && !writeCommands(outputPath.resolve("commands.txt"))) {
+            return false;
+        }
+        System.out.printf("Generated %d exercises, %d sets of %d athletes and %d commands in %s in %.2f s.%n",
+            exercises.size(), generatedSets, athleteCount, commandCount, output, (System.nanoTime() - started) / 1e9);
+        return true;
+    }
+
+    /**
+     * returns the number of sets written by the last generation
+     * @return the number of sets
+     */
+    public long generatedSets() {
+        return generatedSets;
+    }
+
+    /**
+     * creates the exercises from the catalog, adding variations of the
+     * catalog exercises when more exercises are wanted
+     */
+    private void createCatalog() {
+        exercises = new ArrayList<>();
+        baseWeights = new float[exerciseCount];
+        exercisesByType = new HashMap<>();
+        for (int i = 0; i < exerciseCount; i++) {
+            String[] entry = CATALOG[i % CATALOG.length];
+            int variation = i / CATALOG.length;
+            Exercise exercise = new Exercise();
+            exercise.id = i + 1;
+            exercise.name = variation == 0 ? entry[0]
+                : variation <= VARIATIONS.length ? VARIATIONS[variation - 1] + " " + entry[0]
+                : entry[0] + " " + variation;
+            exercise.primaryMuscles = muscles(entry[1]);
+            exercise.secondaryMuscles = muscles(entry[2]);
+            exercise.type = entry[3];
+            exercises.add(exercise);
+            baseWeights[i] = Float.parseFloat(entry[4]) * (variation == 0 ? 1f : 0.85f);
+            exercisesByType.computeIfAbsent(entry[3], type -> new IntList()).add(i);
+        }
+    }
+
+    /**
+     * writes the exercises and the sets of an athlete to their data directory
+     * @param files: for writing the files
+     * @param athlete: the athlete
+     * @return whether the operation succeeded
+     */
+    private boolean writeAthlete(FileHandler files, Athlete athlete) {
+        Path directory = athlete.name.equals(Athletes.DEFAULT_ATHLETE)
+            ? Path.of(output) : Path.of(output, "athletes", athlete.name);
+        try {
+            Files.createDirectories(directory);
+        }
+        catch (IOException e) {
+            System.out.println("Unable to create output directory: " + e.getMessage());
+            return false;
+        }
+        String exercisePath = directory.resolve("exercises.txt").toString();
+        String setPath = directory.resolve("sets.txt").toString();
+        if (!files.writeAllToFile(exercisePath, exercises)) {
+            return false;
+        }
+        int breakDays = 0;
+        for (int day = athlete.firstDay; day <= LAST_DAY.toEpochDay(); day++) {
+            if (breakDays > 0) {
+                breakDays--;
+                continue;
+            }
+            DayOfWeek weekday = LocalDate.ofEpochDay(day).getDayOfWeek();
+            if (weekday == DayOfWeek.MONDAY && athlete.random.nextFloat() < 0.03f) {
+                // holidays and illness, one to three weeks at a time
+                breakDays = 7 * (1 + athlete.random.nextInt(3)) - 1;
+                continue;
+            }
+            if (!athlete.trainingDays[weekday.getValue() - 1] || athlete.random.nextFloat() < 0.1f) {
+                continue;
+            }
+            ArrayList<Set> sets = session(athlete, day);
+            if (!files.writeAllToFile(setPath, sets)) {
+                return false;
+            }
+            generatedSets += sets.size();
+        }
+        return true;
+    }
+
+    /**
+     * generates the sets of one training session
+     * @param athlete: the athlete
+     * @param day: the day of the session as an epoch day
+     * @return the sets
+     */
+    private ArrayList<Set> session(Athlete athlete, int day) {
+        String type = athlete.rotation[athlete.sessions++ % athlete.rotation.length];
+        ArrayList<Set> sets = new ArrayList<>();
+        for (int exercise : programOf(athlete, type, day)) {
+            int scheme = athlete.schemes[exercise];
+            for (int i = 0; i < REP_SCHEMES[scheme].length; i++) {
+                int reps = REP_SCHEMES[scheme][i];
+                if (i == REP_SCHEMES[scheme].length - 1 && reps > 1 && athlete.random.nextFloat() < 0.3f) {
+                    reps--;
+                }
+                sets.add(newSet(athlete, day, exercise, weight(athlete, exercise, day, SCHEME_INTENSITIES[scheme][i]), reps));
+            }
+        }
+        if (athlete.random.nextFloat() < 0.4f) {
+            IntList core = exercisesByType.get("core");
+            int exercise = core.get(athlete.random.nextInt(core.size()));
+            for (int i = 0; i < 3; i++) {
+                sets.add(newSet(athlete, day, exercise, weight(athlete, exercise, day, 0.72f), 12));
+            }
+        }
+        return sets;
+    }
+
+    /**
+     * returns the exercises that an athlete trains in sessions of a type.
+     * The program changes one exercise every twelve weeks.
+     * @param athlete: the athlete
+     * @param type: the type of the session
+     * @param day: the day of the session as an epoch day
+     * @return the exercises
+     */
+    private int[] programOf(Athlete athlete, String type, int day) {
+        IntList ofType = exercisesByType.get(type);
+        int[] program = athlete.program.get(type);
+        if (program == null) {
+            program = new int[Math.min(EXERCISES_PER_SESSION, ofType.size())];
+            for (int i = 0; i < program.length; i++) {
+                program[i] = ofType.get(i);
+            }
+            athlete.program.put(type, program);
+        }
+        else if ((day - athlete.firstDay) % (7 * WEEKS_PER_PROGRAM) < 7 && program.length < ofType.size()
+            && athlete.random.nextFloat() < 0.5f) {
+            int replacing = ofType.get(athlete.random.nextInt(ofType.size()));
+            boolean inProgram = false;
+            for (int exercise : program) {
+                inProgram |= exercise == replacing;
+            }
+            if (!inProgram) {
+                program[athlete.random.nextInt(program.length)] = replacing;
+            }
+        }
+        return program;
+    }
+
+    /**
+     * returns the weight of a set. The weight of five reps grows quickly at
+     * first and then slower, and every eighth week is lighter.
+     * @param athlete: the athlete
+     * @param exercise: the position of the exercise in the catalog
+     * @param day: the day of the set as an epoch day
+     * @param intensity: the weight of the set relative to the weight of five reps
+     * @return the weight, rounded to the plates of the exercise
+     */
+    private float weight(Athlete athlete, int exercise, int day, float intensity) {
+        double weeks = (day - athlete.firstDay) / 7.0;
+        double progress = 0.7 + 0.45 * (1 - Math.exp(-weeks / 52));
+        double deload = (int) weeks % 8 == 7 ? 0.9 : 1;
+        double noise = 1 + (athlete.random.nextDouble() - 0.5) * 0.05;
+        double weight = baseWeights[exercise] * athlete.strength * progress * deload * intensity * noise;
+        double plate = baseWeights[exercise] >= 20 ? 2.5 : 1.25;
+        return (float) (Math.round(weight / plate) * plate);
+    }
+
+    /**
+     * creates a new set of an athlete with the next id
+     * @param athlete: the athlete
+     * @param day: the day of the set as an epoch day
+     * @param exercise: the position of the exercise in the catalog
+     * @param weight: the weight of the set
+     * @param reps: the reps of the set
+     * @return the set
+     */
+    private Set newSet(Athlete athlete, int day, int exercise, float weight, int reps) {
+        Set set = new Set();
+        set.id = athlete.nextId++;
+        set.day = LocalDate.ofEpochDay(day);
+        set.date = set.day.toString();
+        set.exerciseId = exercise + 1;
+        set.exercise = exercises.get(exercise).name;
+        set.weight = weight;
+        set.reps = reps;
+        athlete.days.add(day);
+        athlete.exercisesOfSets.add(exercise);
+        athlete.lastDay = Math.max(athlete.lastDay, day);
+        return set;
+    }
+
+    /**
+     * writes a script of commands that continue the training of the athletes.
+     * Deletions and modifications mostly change the latest sets, like
+     * corrections of mistakes would.
+     * @param path: path to the script
+     * @return whether the operation succeeded
+     */
+    private boolean writeCommands(Path path) {
+        Random random = new Random(seed);
+        Athlete athlete = athletes.get(0);
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("# generated with seed " + seed + ", replay with --script");
+            writer.newLine();
+            for (int i = 0; i < commandCount; i++) {
+                if (athletes.size() > 1 && random.nextFloat() < 0.02f) {
+                    athlete = athletes.get(random.nextInt(athletes.size()));
+                    writer.write("use " + athlete.name);
+                    writer.newLine();
+                }
+                int kind = random.nextInt(addWeight + deleteWeight + modifyWeight);
+                int id = kind >= addWeight ? pickSet(athlete, random) : 0;
+                if (id == 0) {
+                    if (random.nextFloat() < 0.2f) {
+                        athlete.lastDay += 1 + random.nextInt(3);
+                    }
+                    IntList ofType = exercisesByType.get(TYPES[random.nextInt(TYPES.length)]);
+                    int exercise = ofType.get(random.nextInt(ofType.size()));
+                    int scheme = athlete.schemes[exercise];
+                    Set set = newSet(athlete, athlete.lastDay, exercise,
+                        weight(athlete, exercise, athlete.lastDay, SCHEME_INTENSITIES[scheme][0]), REP_SCHEMES[scheme][0]);
+                    writer.write("add set " + setFields(set));
+                }
+                else if (kind < addWeight + deleteWeight) {
+                    athlete.deleted.set(id);
+                    athlete.deletedCount++;
+                    writer.write("delete set " + id);
+                }
+                else {
+                    int day = athlete.days.get(id - 1);
+                    int exercise = athlete.exercisesOfSets.get(id - 1);
+                    int scheme = athlete.schemes[exercise];
+                    Set set = new Set();
+                    set.date = LocalDate.ofEpochDay(day).toString();
+                    set.exercise = exercises.get(exercise).name;
+                    set.weight = weight(athlete, exercise, day, SCHEME_INTENSITIES[scheme][0]);
+                    set.reps = REP_SCHEMES[scheme][0] + random.nextInt(3) - 1;
+                    writer.write("modify set " + id + " " + setFields(set));
+                }
+                writer.newLine();
+            }
+        }
+        catch (IOException e) {
+            System.out.println("Unable to write commands: " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * picks a set of an athlete that has not been deleted, usually one of the latest
+     * @param athlete: the athlete
+     * @param random: for picking the set
+     * @return the id of the set or 0 if the athlete has no sets
+     */
+    private int pickSet(Athlete athlete, Random random) {
+        int lastId = athlete.nextId - 1;
+        if (lastId - athlete.deletedCount <= 0) {
+            return 0;
+        }
+        for (int attempt = 0; attempt < 10; attempt++) {
+            int id = random.nextFloat() < 0.7f
+                ? lastId - random.nextInt(Math.min(RECENT_SETS, lastId))
+                : 1 + random.nextInt(lastId);
+            if (!athlete.deleted.get(id)) {
+                return id;
+            }
+        }
+        int id = athlete.deleted.previousClearBit(lastId);
+        return Math.max(id, 0);
+    }
+
+    /**
+     * formats a set as the fields of an add or modify command
+     * @param set: the set
+     * @return the fields separated by semicolons
+     */
+    private static String setFields(Set set) {
+        return set.date + ";" + set.exercise + ";" + set.weight + ";" + set.reps;
+    }
+
+    /**
+     * splits a list of muscles separated by commas
+     * @param list: the muscles
+     * @return the muscles as a list
+     */
+    private static ArrayList<String> muscles(String list) {
+        return list.isEmpty() ? new ArrayList<>() : new ArrayList<>(List.of(list.split(",")));
+    }
+}
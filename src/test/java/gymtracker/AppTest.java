@@ -1,13 +1,26 @@
 package gymtracker;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Unit test for simple App.
  */
 public class AppTest {
+    @TempDir
+    Path directory;
+
+    @RegisterExtension
+    final TestData.CapturedOutput output = new TestData.CapturedOutput();
 
     /**
      * Rigorous Test :-)
@@ -16,4 +29,30 @@ public class AppTest {
     public void shouldAnswerWithTrue() {
         assertTrue(true);
     }
+
+    /**
+     * "more" prints the next page of the last listing, and nothing after the last page.
+     */
+    @Test
+    public void morePrintsNextPages() {
+        Athletes athletes = new Athletes(directory.toString(), Durability.onQuit(), false, Long.MAX_VALUE);
+        App.runCommands(new Scanner(String.join("\n",
+            "add exercise Bench;chest;triceps;push",
+            "add set 2024-01-10;Bench;100;5",
+            "add set 2024-01-11;Bench;100;5",
+            "add set 2024-01-12;Bench;100;5",
+            "print sets from 2024-01-01 to 2024-01-31 --limit 2",
+            "more",
+            "more",
+            "quit")), athletes);
+        athletes.close();
+
+        List<String> lines = Arrays.asList(output.lines());
+        assertEquals(List.of(
+            "2024-01-10: #1 Bench, 100 kg, 5 reps",
+            "2024-01-11: #2 Bench, 100 kg, 5 reps",
+            "Type \"more\" to see the next 2 rows.",
+            "2024-01-12: #3 Bench, 100 kg, 5 reps",
+            "Nothing more to print."), lines.subList(lines.size() - 5, lines.size()));
+    }
 }
@@ -0,0 +1,51 @@
+package gymtracker;
+
+import static gymtracker.TestData.exercise;
+import static gymtracker.TestData.set;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for Athletes.
+ */
+public class AthletesTest {
+    @TempDir
+    Path directory;
+
+    /**
+     * Every athlete has data of their own, and an unused athlete is unloaded
+     * over the memory budget and loaded again with the same data.
+     */
+    @Test
+    public void athletesAreSeparateAndUnloadedOverBudget() {
+        Athletes athletes = new Athletes(directory.toString(), Durability.perRecord(), false, 0);
+        Data anna = athletes.use("anna");
+        assertTrue(anna.addExercise(exercise("Bench")));
+        assertTrue(anna.addSet(set("2024-01-10", "Bench")));
+
+        Data ben = athletes.use("ben");
+        assertFalse(ben.addSet(set("2024-01-10", "Bench")));
+        assertTrue(athletes.isLoaded("anna"));
+
+        athletes.release("anna");
+        assertFalse(athletes.isLoaded("anna"));
+        assertTrue(athletes.isLoaded("ben"));
+        assertTrue(Files.exists(directory.resolve("athletes/anna/sets.txt")));
+
+        Data reloaded = athletes.use("anna");
+        assertTrue(reloaded.deleteLastSet());
+        assertFalse(reloaded.deleteLastSet());
+        athletes.release("anna");
+        athletes.release("ben");
+
+        assertNull(athletes.use("../anna"));
+        athletes.close();
+    }
+}
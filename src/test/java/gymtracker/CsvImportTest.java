@@ -0,0 +1,108 @@
+package gymtracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for CsvImport. The length of the benchmark file can be changed with
+ * the system property csvImportBenchmark.rows.
+ */
+public class CsvImportTest {
+    private final static int BENCHMARK_ROWS = Integer.getInteger("csvImportBenchmark.rows", 1000000);
+    private final static int FUNCTIONAL_ROWS = 25000;
+
+    @TempDir
+    Path directory;
+
+    @RegisterExtension
+    final TestData.CapturedOutput output = new TestData.CapturedOutput();
+
+    /**
+     * Rows that are not valid or refer to missing exercises are rejected, and the rest are saved.
+     */
+    @Test
+    public void rejectedRows() throws IOException {
+        Path exercises = directory.resolve("exercises.csv");
+        Files.writeString(exercises, "name,primary,secondary,type\n"
+            + "\"Bench, flat\",chest,triceps;shoulders,push\n"
+            + "Squat,quads,glutes\n");
+        Path sets = directory.resolve("sets.csv");
+        Files.writeString(sets, "date,exercise,weight,reps\n"
+            + "2024-01-10,\"Bench, flat\",100,5\n"
+            + "2024-01-1x,\"Bench, flat\",100,5\n"
+            + "2024-01-12,\"Bench, flat\",100,-5\n"
+            + "2024-01-11,Deadlift,180,3\n");
+
+        Data data = new Data(new FileHandler(), directory.toString());
+        CsvImport importer = new CsvImport(data);
+        assertTrue(importer.importExercises(exercises));
+        assertEquals(1, importer.imported());
+        assertEquals(1, importer.rejected());
+        assertTrue(importer.importSets(sets, false));
+        assertEquals(1, importer.imported());
+        assertEquals(3, importer.rejected());
+        data.close();
+
+        Data reloaded = new Data(new FileHandler(), directory.toString());
+        output.reset();
+        reloaded.printStats("Bench, flat");
+        reloaded.close();
+        assertEquals("sets: 1", output.lines()[0]);
+    }
+
+    /**
+     * Every row of a file of sets is imported, creating the exercise.
+     */
+    @Test
+    public void importOfSets() throws IOException {
+        importSets(FUNCTIONAL_ROWS);
+    }
+
+    /**
+     * Imports a long file of sets, creating the exercise, and reports how many rows it imports per second.
+     */
+    @Test
+    @Tag("benchmark")
+    public void longImport() throws IOException {
+        importSets(BENCHMARK_ROWS);
+    }
+
+    private void importSets(int rows) throws IOException {
+        Path sets = directory.resolve("sets.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(sets)) {
+            writer.write("date,exercise,weight,reps\n");
+            for (int i = 0; i < rows; i++) {
+                writer.write(LocalDate.ofEpochDay(19000 + i / 20) + ",Bench," + (60 + i % 40) + ".5,"
+                    + (1 + i % 10) + "\n");
+            }
+        }
+
+        Data data = new Data(new FileHandler(Durability.onQuit(), false), directory.toString());
+        CsvImport importer = new CsvImport(data);
+        long started = System.nanoTime();
+        assertTrue(importer.importSets(sets, true));
+        data.close();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.err.printf("%d imported rows in %.2f s: %.0f rows/s%n", importer.imported(), seconds,
+            importer.imported() / seconds);
+
+        assertEquals(rows, importer.imported());
+        assertEquals(0, importer.rejected());
+        Data reloaded = new Data(new FileHandler(), directory.toString());
+        output.reset();
+        reloaded.printStats("Bench");
+        reloaded.close();
+        assertEquals("sets: " + rows, output.lines()[0]);
+    }
+}
@@ -0,0 +1,528 @@
+package gymtracker;
+
+import static gymtracker.TestData.exercise;
+import static gymtracker.TestData.set;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for Data.
+ */
+public class DataTest {
+    private final static int WRITERS = 4;
+    private final static int READERS = 4;
+    private final static int SETS_PER_WRITER = 5000;
+
+    @TempDir
+    Path directory;
+
+    @RegisterExtension
+    final TestData.CapturedOutput output = new TestData.CapturedOutput();
+
+    /**
+     * Readers running next to writers never fail and never see half of a change,
+     * and every change is saved.
+     */
+    @Test
+    public void concurrentReadsAndWrites() throws Exception {
+        Data data = new Data(new FileHandler(Durability.onQuit()), directory.toString());
+        assertTrue(data.addExercise(exercise("Bench")));
+        assertTrue(data.addExercise(exercise("Squat")));
+
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger deleted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ArrayList<Thread> writers = new ArrayList<>();
+        ArrayList<Thread> readers = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            writers.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < SETS_PER_WRITER; i++) {
+                        // every set has volume 1 so that the set count and volume of an exercise always match
+                        Set set = set(String.format("2024-%02d-%02d", 1 + i % 12, 1 + i % 28), "Bench");
+                        assertTrue(data.addSet(set));
+                        if (writer == 0 && i % 10 == 0 && data.deleteSet(set.id)) {
+                            deleted.incrementAndGet();
+                        }
+                        output.reset();
+                    }
+                }
+                catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        for (int r = 0; r < READERS; r++) {
+            readers.add(new Thread(() -> {
+                try {
+                    start.await();
+                    while (writing.get()) {
+                        data.printStats("Bench");
+                        String[] lines = output.lines();
+                        if (lines[0].startsWith("sets: ")) {
+                            String sets = lines[0].substring("sets: ".length());
+                            assertEquals("total volume: " + sets + " kg", lines[1]);
+                        }
+                        data.printSetsForDate("2024-03-03");
+                        data.printSetsBetween("2024-01-01", "2024-06-30");
+                        data.printSetsForExercise("Bench");
+                        data.printSummary("Bench", true);
+                        data.printMuscleVolume("2024-05-05");
+                        output.reset();
+                    }
+                }
+                catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+
+        writers.forEach(Thread::start);
+        readers.forEach(Thread::start);
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        writing.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertEquals(List.of(), failures);
+
+        String expected = "sets: " + (WRITERS * SETS_PER_WRITER - deleted.get());
+        assertEquals(expected, output.printed(() -> data.printStats("Bench"))[0]);
+        String[] allSets = output.printed(data::printAllSets);
+        data.close();
+
+        Data reloaded = new Data(new FileHandler(Durability.onQuit()), directory.toString());
+        assertEquals(expected, output.printed(() -> reloaded.printStats("Bench"))[0]);
+        assertEquals(List.of(allSets), List.of(output.printed(reloaded::printAllSets)));
+        reloaded.close();
+    }
+
+    /**
+     * A compaction rewrites only the partitions of the months that changed,
+     * and sets saved before partitioning are split into partitions on load.
+     */
+    @Test
+    public void setsArePartitionedByMonth() throws IOException {
+        Files.writeString(directory.resolve("exercises.txt"),
+            "name:\"Bench\"\nprimaryMuscles:[\"chest\"]\nsecondaryMuscles:[\"triceps\"]\ntype:\"push\"\nend\n");
+        Files.writeString(directory.resolve("sets.txt"),
+            "date:\"2024-01-10\"\nexercise:\"Bench\"\nweight:1.0\nreps:1\nend\n"
+            + "date:\"2024-02-10\"\nexercise:\"Bench\"\nweight:1.0\nreps:1\nend\n");
+        Data data = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertTrue(Files.exists(directory.resolve("sets.manifest.txt")));
+        assertEquals("sets: 2", output.printed(() -> data.printStats("Bench"))[0]);
+
+        List<String> before = partitionFiles();
+        assertEquals(2, before.size());
+        assertTrue(data.addSet(set("2024-02-20", "Bench")));
+        assertTrue(data.compact(true));
+        List<String> after = partitionFiles();
+        assertEquals(before.get(0), after.get(0));
+        assertTrue(!before.get(1).equals(after.get(1)));
+        String[] allSets = output.printed(data::printAllSets);
+        data.close();
+
+        Data reloaded = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertEquals(List.of(allSets), List.of(output.printed(reloaded::printAllSets)));
+        assertTrue(reloaded.convertSetSnapshots(true));
+        assertTrue(partitionFiles().stream().allMatch(file -> file.endsWith(".bin")));
+        reloaded.close();
+
+        Data converted = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertEquals(List.of(allSets), List.of(output.printed(converted::printAllSets)));
+        converted.close();
+    }
+
+    /**
+     * Sets between two dates are printed in date order, including both dates.
+     */
+    @Test
+    public void setsBetweenDates() {
+        Data data = new Data(new FileHandler(Durability.onQuit()), directory.toString());
+        assertTrue(data.addExercise(exercise("Bench")));
+        assertTrue(data.addExercise(exercise("Squat")));
+        assertTrue(data.addSet(set("2024-01-20", "Bench")));
+        assertTrue(data.addSet(set("2024-01-12", "Squat")));
+        assertTrue(data.addSet(set("2024-01-10", "Bench")));
+        assertTrue(data.addSet(set("2024-02-01", "Bench")));
+
+        assertArrayEquals(new String[] {"2024-01-12: #2 Squat, 1 kg, 1 reps", "2024-01-20: #1 Bench, 1 kg, 1 reps"},
+            output.printed(() -> data.printSetsBetween("2024-01-12", "20.1.2024")));
+        assertEquals("No exercises for given dates.",
+            output.printed(() -> data.printSetsBetween("2024-01-21", "2024-01-31"))[0]);
+        assertEquals("Start date should not be after end date.",
+            output.printed(() -> data.printSetsBetween("2024-02-01", "2024-01-01"))[0]);
+        data.close();
+    }
+
+    /**
+     * The statistics of an exercise follow added, modified and deleted sets.
+     */
+    @Test
+    public void statsFollowChanges() {
+        Data data = new Data(new FileHandler(Durability.onQuit()), directory.toString());
+        assertTrue(data.addExercise(exercise("Bench")));
+        assertTrue(data.addSet(set("2024-01-10", "Bench", 100, 5)));
+        assertTrue(data.addSet(set("2024-01-12", "Bench", 120, 3)));
+        assertTrue(data.addSet(set("2024-01-11", "Bench", 80, 10)));
+        assertArrayEquals(new String[] {"sets: 3", "total volume: 1660 kg", "max weight: 120 kg",
+            "best estimated 1RM: 132 kg", "last session: 2024-01-12"}, output.printed(() -> data.printStats("Bench")));
+
+        assertTrue(data.deleteSet(2));
+        assertTrue(data.modifySet(3, set("2024-01-09", "Bench", 80.5f, 2)));
+        assertArrayEquals(new String[] {"sets: 2", "total volume: 661 kg", "max weight: 100 kg",
+            "best estimated 1RM: 116.67 kg", "last session: 2024-01-10"}, output.printed(() -> data.printStats("Bench")));
+        data.close();
+    }
+
+    /**
+     * The volume of a week is counted for the primary and secondary muscles
+     * of every exercise, from Monday to Sunday.
+     */
+    @Test
+    public void muscleVolumeOfWeek() {
+        Data data = new Data(new FileHandler(Durability.onQuit()), directory.toString());
+        assertTrue(data.addExercise(exercise("Bench")));
+        Exercise dip = exercise("Dip");
+        dip.primaryMuscles = new ArrayList<>(List.of("triceps"));
+        dip.secondaryMuscles = new ArrayList<>(List.of("chest", "shoulders"));
+        assertTrue(data.addExercise(dip));
+        assertTrue(data.addSet(set("2024-01-08", "Bench", 100, 5)));
+        assertTrue(data.addSet(set("2024-01-14", "Dip", 20, 10)));
+        assertTrue(data.addSet(set("2024-01-15", "Bench", 50, 5)));
+
+        assertArrayEquals(new String[] {"Week of 2024-01-08:",
+            "chest: 1 sets, 500 kg as primary; 1 sets, 200 kg as secondary",
+            "shoulders: 0 sets, 0 kg as primary; 1 sets, 200 kg as secondary",
+            "triceps: 1 sets, 200 kg as primary; 1 sets, 500 kg as secondary"},
+            output.printed(() -> data.printMuscleVolume("2024-01-10")));
+        assertEquals("No exercises for given week.", output.printed(() -> data.printMuscleVolume("2024-01-01"))[0]);
+        data.close();
+    }
+
+    /**
+     * Weekly and monthly summaries follow deleted sets, and are the same when
+     * they are read back from the saved rollups.
+     */
+    @Test
+    public void weeklyAndMonthlySummaries() throws IOException {
+        Data data = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertTrue(data.addExercise(exercise("Bench")));
+        assertTrue(data.addSet(set("2024-01-08", "Bench", 100, 5)));
+        assertTrue(data.addSet(set("2024-01-10", "Bench", 110, 3)));
+        assertTrue(data.addSet(set("2024-01-31", "Bench", 90, 5)));
+        assertTrue(data.addSet(set("2024-02-01", "Bench", 95, 2)));
+        assertArrayEquals(new String[] {"2024-01-08: 2 sets, 830 kg total, 110 kg max",
+            "2024-01-29: 2 sets, 640 kg total, 95 kg max"}, output.printed(() -> data.printSummary("Bench", true)));
+        assertArrayEquals(new String[] {"2024-01: 3 sets, 1280 kg total, 110 kg max",
+            "2024-02: 1 sets, 190 kg total, 95 kg max"}, output.printed(() -> data.printSummary("Bench", false)));
+
+        assertTrue(data.deleteSet(2));
+        String[] weekly = {"2024-01-08: 1 sets, 500 kg total, 100 kg max", "2024-01-29: 2 sets, 640 kg total, 95 kg max"};
+        assertArrayEquals(weekly, output.printed(() -> data.printSummary("Bench", true)));
+        assertTrue(data.compact(true));
+        data.close();
+
+        Data reloaded = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertArrayEquals(weekly, output.printed(() -> reloaded.printSummary("Bench", true)));
+        reloaded.close();
+    }
+
+    /**
+     * A listing printed page by page continues after the last printed set,
+     * also when a set is added before it between the pages, and the last page
+     * has no next page.
+     */
+    @Test
+    public void pagesContinueAfterCursor() {
+        Data data = new Data(new FileHandler(Durability.onQuit()), directory.toString());
+        assertTrue(data.addExercise(exercise("Bench")));
+        for (int day = 10; day < 15; day++) {
+            assertTrue(data.addSet(set("2024-01-" + day, "Bench")));
+        }
+
+        Page[] next = new Page[1];
+        assertArrayEquals(new String[] {"2024-01-10: #1 Bench, 1 kg, 1 reps", "2024-01-11: #2 Bench, 1 kg, 1 reps"},
+            output.printed(() -> next[0] = data.printSetsBetween("2024-01-01", "2024-01-31", new Page(0, 2))));
+        assertTrue(data.addSet(set("2024-01-09", "Bench")));
+        assertArrayEquals(new String[] {"2024-01-12: #3 Bench, 1 kg, 1 reps", "2024-01-13: #4 Bench, 1 kg, 1 reps"},
+            output.printed(() -> next[0] = data.printSetsBetween("2024-01-01", "2024-01-31", next[0])));
+        assertArrayEquals(new String[] {"2024-01-14: #5 Bench, 1 kg, 1 reps"},
+            output.printed(() -> next[0] = data.printSetsBetween("2024-01-01", "2024-01-31", next[0])));
+        assertNull(next[0]);
+
+        assertArrayEquals(new String[] {"2024-01-10: #1 Bench, 1 kg, 1 reps"},
+            output.printed(() -> data.printSetsBetween("2024-01-01", "2024-01-31", new Page(1, 1))));
+        data.close();
+    }
+
+    /**
+     * The first set of an exercise is not reported as a personal record, but
+     * a heavier set after it is.
+     */
+    @Test
+    public void firstSetIsNotRecord() {
+        Data data = new Data(new FileHandler(Durability.onQuit()), directory.toString());
+        assertTrue(data.addExercise(exercise("Bench")));
+        assertEquals("", String.join("", output.printed(() -> data.addSet(set("2024-01-10", "Bench")))));
+        Set heavier = set("2024-01-11", "Bench");
+        heavier.weight = 2;
+        assertEquals("New personal record for 1 reps!", output.printed(() -> data.addSet(heavier))[0]);
+        data.close();
+    }
+
+    /**
+     * An exercise added with the name of a deleted exercise gets a new id,
+     * so the sets of the deleted exercise do not come back with it.
+     */
+    @Test
+    public void deletedExerciseIdsAreNotReused() {
+        Data data = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertTrue(data.addExercise(exercise("Bench")));
+        assertTrue(data.addSet(set("2024-01-10", "Bench")));
+        assertTrue(data.deleteExercise("Bench", false));
+        assertEquals("2024-01-10: #1 1 kg, 1 reps", output.printed(() -> data.printSetsForExercise("Bench"))[0]);
+
+        assertTrue(data.addExercise(exercise("Bench")));
+        assertEquals("No sets for given exercise.", output.printed(() -> data.printSetsForExercise("Bench"))[0]);
+        data.close();
+
+        Data reloaded = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertEquals("No sets for given exercise.", output.printed(() -> reloaded.printSetsForExercise("Bench"))[0]);
+        assertTrue(reloaded.compact(true));
+        reloaded.close();
+
+        Data compacted = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertEquals("No sets for given exercise.", output.printed(() -> compacted.printSetsForExercise("Bench"))[0]);
+        compacted.close();
+    }
+
+    /**
+     * Sets deleted together with their exercise stay deleted after the data is
+     * loaded again from the log and from a compaction.
+     */
+    @Test
+    public void cascadeDeleteIsReplayed() throws IOException {
+        Data data = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertTrue(data.addExercise(exercise("Bench")));
+        assertTrue(data.addExercise(exercise("Squat")));
+        assertTrue(data.addSet(set("2024-01-10", "Bench")));
+        assertTrue(data.addSet(set("2024-01-10", "Squat")));
+        assertTrue(data.addSet(set("2024-02-10", "Bench")));
+        assertTrue(data.deleteExercise("Bench", true));
+        data.close();
+
+        for (int load = 0; load < 2; load++) {
+            Data reloaded = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+            assertEquals("No sets for given exercise.", output.printed(() -> reloaded.printSetsForExercise("Bench"))[0]);
+            assertArrayEquals(new String[] {"2024-01-10: #2 1 kg, 1 reps"},
+                output.printed(() -> reloaded.printSetsForExercise("Squat")));
+            assertTrue(reloaded.compact(true));
+            reloaded.close();
+        }
+    }
+
+    /**
+     * The id of a deleted set is not given again after a compaction has removed
+     * the set from the files and the data is loaded again.
+     */
+    @Test
+    public void deletedSetIdsAreNotReused() {
+        Data data = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertTrue(data.addExercise(exercise("Bench")));
+        assertTrue(data.addSet(set("2024-01-10", "Bench")));
+        assertTrue(data.addSet(set("2024-01-11", "Bench")));
+        assertTrue(data.deleteLastSet());
+        assertTrue(data.compact(true));
+        data.close();
+
+        Data reloaded = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertTrue(reloaded.addSet(set("2024-01-12", "Bench")));
+        assertEquals("2024-01-12: #3 1 kg, 1 reps", output.printed(() -> reloaded.printSetsForExercise("Bench"))[1]);
+        reloaded.close();
+    }
+
+    /**
+     * Sets modified or deleted by id stay so after the data is loaded again,
+     * also when the month of a modified set was already compacted.
+     */
+    @Test
+    public void modifiedAndDeletedSetsAreReplayed() throws IOException {
+        Data data = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertTrue(data.addExercise(exercise("Bench")));
+        assertTrue(data.addSet(set("2024-01-10", "Bench")));
+        assertTrue(data.addSet(set("2024-01-11", "Bench")));
+        assertTrue(data.addSet(set("2024-02-10", "Bench")));
+        assertTrue(data.compact(true));
+        Set moved = set("2024-03-05", "Bench");
+        moved.weight = 50;
+        moved.reps = 3;
+        assertTrue(data.modifySet(1, moved));
+        Set heavier = set("2024-02-10", "Bench");
+        heavier.weight = 60;
+        assertTrue(data.modifySet(3, heavier));
+        assertTrue(data.deleteSet(2));
+        data.close();
+
+        String[] expected = {"2024-03-05: #1 50 kg, 3 reps", "2024-02-10: #3 60 kg, 1 reps"};
+        Data reloaded = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertArrayEquals(expected, output.printed(() -> reloaded.printSetsForExercise("Bench")));
+        assertTrue(reloaded.compact(true));
+        reloaded.close();
+
+        Data compacted = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertArrayEquals(expected, output.printed(() -> compacted.printSetsForExercise("Bench")));
+        compacted.close();
+    }
+
+    /**
+     * When the process stops after a compaction has written the snapshot and
+     * the log of the next generation, but before the new log has replaced the
+     * old one, the snapshot and the tail of the old log are loaded once each.
+     */
+    @Test
+    public void interruptedLogTruncationIsRecovered() throws IOException {
+        Path log = directory.resolve("sets.txt");
+        Data data = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertTrue(data.addExercise(exercise("Bench")));
+        for (int day = 10; day < 13; day++) {
+            assertTrue(data.addSet(set("2024-01-" + day, "Bench")));
+        }
+        String compactedLog = Files.readString(log);
+        assertTrue(data.compact(true));
+        assertTrue(data.addSet(set("2024-01-13", "Bench")));
+        assertTrue(data.addSet(set("2024-01-14", "Bench")));
+        data.close();
+        String newLog = Files.readString(log);
+        assertTrue(newLog.startsWith("generation:1\n"));
+        // the new generation is left next to the old log, which got the later sets appended
+        Files.writeString(directory.resolve("sets.txt.tmp"), newLog);
+        Files.writeString(log, compactedLog + newLog.substring("generation:1\n".length()));
+
+        String[] expected = {"2024-01-10: #1 1 kg, 1 reps", "2024-01-11: #2 1 kg, 1 reps",
+            "2024-01-12: #3 1 kg, 1 reps", "2024-01-13: #4 1 kg, 1 reps", "2024-01-14: #5 1 kg, 1 reps"};
+        Data reloaded = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertArrayEquals(expected, output.printed(() -> reloaded.printSetsForExercise("Bench")));
+        assertTrue(reloaded.compact(true));
+        reloaded.close();
+
+        Data compacted = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertArrayEquals(expected, output.printed(() -> compacted.printSetsForExercise("Bench")));
+        compacted.close();
+        assertTrue(Files.readString(log).startsWith("generation:1\n"));
+    }
+
+    /**
+     * When a partition cannot be read, changes are refused so that new sets
+     * cannot get the ids of the sets in the partition.
+     */
+    @Test
+    public void unreadablePartitionRefusesChanges() throws IOException {
+        Data data = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertTrue(data.addExercise(exercise("Bench")));
+        assertTrue(data.addSet(set("2024-01-10", "Bench")));
+        assertTrue(data.addSet(set("2024-02-10", "Bench")));
+        assertTrue(data.convertSetSnapshots(true));
+        data.close();
+        List<String> partitions = partitionFiles();
+        Files.write(directory.resolve("sets").resolve(partitions.get(1)), new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+
+        Data reloaded = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertEquals("Saved data could not be read, so changes are not allowed.",
+            output.printed(() -> reloaded.addSet(set("2024-03-10", "Bench")))[0]);
+        assertFalse(reloaded.compact(true));
+        reloaded.close();
+        assertEquals(partitions, partitionFiles());
+    }
+
+    /**
+     * When a line in the middle of a text partition cannot be parsed, changes
+     * and compactions are refused, so the files are not replaced with the sets
+     * that could be read.
+     */
+    @Test
+    public void corruptTextPartitionIsNotRewritten() throws IOException {
+        Data data = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertTrue(data.addExercise(exercise("Bench")));
+        for (int day = 10; day < 20; day++) {
+            assertTrue(data.addSet(set("2024-01-" + day, "Bench")));
+        }
+        assertTrue(data.addSet(set("2024-02-10", "Bench")));
+        assertTrue(data.compact(true));
+        data.close();
+        Path partition = directory.resolve("sets").resolve(partitionFiles().get(0));
+        String text = Files.readString(partition);
+        int middle = text.indexOf("reps:1", text.length() / 2);
+        Files.writeString(partition, text.substring(0, middle) + "reps:x" + text.substring(middle + "reps:1".length()));
+        Map<Path, String> before = savedFiles();
+
+        Data reloaded = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertEquals("Saved data could not be read, so changes are not allowed.",
+            output.printed(() -> reloaded.addSet(set("2024-03-10", "Bench")))[0]);
+        assertFalse(reloaded.deleteSet(1));
+        assertFalse(reloaded.compact(true));
+        reloaded.close();
+        assertEquals(before, savedFiles());
+    }
+
+    /**
+     * When the exercise log cannot be read to the end, changes are refused.
+     */
+    @Test
+    public void corruptExerciseLogRefusesChanges() throws IOException {
+        Data data = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertTrue(data.addExercise(exercise("Bench")));
+        assertTrue(data.addExercise(exercise("Squat")));
+        data.close();
+        Path log = directory.resolve("exercises.txt");
+        Files.writeString(log, Files.readString(log).replaceFirst("type:\"push\"\n", "type\n"));
+        Map<Path, String> before = savedFiles();
+
+        Data reloaded = new Data(new FileHandler(Durability.perRecord()), directory.toString());
+        assertFalse(reloaded.addExercise(exercise("Deadlift")));
+        reloaded.close();
+        assertEquals(before, savedFiles());
+    }
+
+    private List<String> partitionFiles() throws IOException {
+        try (var files = Files.list(directory.resolve("sets"))) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private Map<Path, String> savedFiles() throws IOException {
+        try (var files = Files.walk(directory)) {
+            Map<Path, String> contents = new TreeMap<>();
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                contents.put(directory.relativize(file), Files.readString(file));
+            }
+            return contents;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package gymtracker;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for FileHandler.
+ */
+public class FileHandlerTest {
+    @TempDir
+    Path directory;
+
+    @RegisterExtension
+    final TestData.CapturedOutput output = new TestData.CapturedOutput();
+
+    /**
+     * Data loaded from a large log parsed in parallel chunks has the same sets
+     * as data loaded from the log parsed line by line.
+     */
+    @Test
+    public void parallelLoadMatchesSequentialLoad() throws IOException {
+        StringBuilder exercises = new StringBuilder();
+        for (int i = 1; i <= 50; i++) {
+            exercises.append("name:\"Exercise " + i + "\"\n")
+                .append("primaryMuscles:[\"chest\"]\nsecondaryMuscles:[]\ntype:\"push\"\nend\n");
+        }
+        Path log = directory.resolve("sets.txt");
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(log)) {
+            writer.write("generation:3\n");
+            for (int i = 0; i < 600000; i++) {
+                int entry = random.nextInt(1000);
+                if (entry == 0) {
+                    writer.write("delete\n");
+                }
+                else if (i == 250000) {
+                    writer.write("clear\n");
+                }
+                else {
+                    LocalDate day = LocalDate.ofEpochDay(18000 + random.nextInt(2000));
+                    writer.write("date:\"" + day + "\"\n");
+                    writer.write("exercise:\"Exercise " + (1 + random.nextInt(50)) + "\"\n");
+                    writer.write("weight:" + random.nextInt(200) + "." + random.nextInt(10) + "0\n");
+                    writer.write("reps:" + (1 + random.nextInt(20)) + "\n");
+                    writer.write("end\n");
+                }
+            }
+        }
+
+        String[] sequential = printedSets(new FileHandler(Durability.onQuit(), false), exercises.toString(), log);
+        String[] parallel = printedSets(new FileHandler(Durability.onQuit(), true), exercises.toString(), log);
+        assertTrue(sequential.length > 1);
+        assertArrayEquals(sequential, parallel);
+    }
+
+    private String[] printedSets(FileHandler files, String exercises, Path log) throws IOException {
+        Path data = Files.createTempDirectory(directory, "data");
+        Files.writeString(data.resolve("exercises.txt"), exercises);
+        Files.copy(log, data.resolve("sets.txt"));
+        Data loaded = new Data(files, data.toString());
+        String[] sets = output.printed(loaded::printAllSets);
+        loaded.close();
+        return sets;
+    }
+}
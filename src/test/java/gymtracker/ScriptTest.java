@@ -0,0 +1,127 @@
+package gymtracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for Script. The length of the benchmark script can be changed with
+ * the system property scriptBenchmark.lines.
+ */
+public class ScriptTest {
+    private final static int BENCHMARK_LINES = Integer.getInteger("scriptBenchmark.lines", 1000000);
+    private final static int FUNCTIONAL_LINES = 1000;
+
+    @TempDir
+    Path directory;
+
+    @RegisterExtension
+    final TestData.CapturedOutput output = new TestData.CapturedOutput();
+
+    /**
+     * A script with a line that cannot be parsed changes nothing.
+     */
+    @Test
+    public void scriptWithErrorChangesNothing() throws IOException {
+        Path script = directory.resolve("script.txt");
+        Files.writeString(script, "add exercise Bench;chest;triceps;push\n"
+            + "add set 2024-01-10;Bench;100;5\n"
+            + "add set 2024-01-1x;Bench;100;5\n");
+        Athletes athletes = athletes();
+        assertEquals(-1, new Script(athletes).run(script));
+        athletes.close();
+        assertFalse(Files.exists(directory.resolve("data/exercises.txt")));
+        assertFalse(Files.exists(directory.resolve("data/sets.txt")));
+    }
+
+    /**
+     * A print command with arguments that App rejects is an error of the script.
+     */
+    @Test
+    public void printWithWrongArgumentsChangesNothing() throws IOException {
+        Path script = directory.resolve("script.txt");
+        Files.writeString(script, "add exercise Bench;chest;triceps;push\n"
+            + "print sets date\n");
+        Athletes athletes = athletes();
+        assertEquals(-1, new Script(athletes).run(script));
+        athletes.close();
+        assertFalse(Files.exists(directory.resolve("data/exercises.txt")));
+        assertEquals("Please specify a date.", output.lines()[0]);
+    }
+
+    /**
+     * An import of a file that cannot be read, or of something other than
+     * sets or exercises, is an error of the script.
+     */
+    @Test
+    public void importWithWrongArgumentsChangesNothing() throws IOException {
+        Path sets = directory.resolve("sets.csv");
+        Files.writeString(sets, "date,exercise,weight,reps\n2024-01-10,Bench,100,5\n");
+        for (String command : new String[] {"import sets " + directory.resolve("missing.csv"), "import rows " + sets}) {
+            Path script = directory.resolve("script.txt");
+            Files.writeString(script, "add exercise Bench;chest;triceps;push\n" + command + "\n");
+            Athletes athletes = athletes();
+            assertEquals(-1, new Script(athletes).run(script));
+            athletes.close();
+            assertFalse(Files.exists(directory.resolve("data/exercises.txt")));
+        }
+    }
+
+    /**
+     * Every command of a script of added sets is run.
+     */
+    @Test
+    public void scriptOfSets() throws IOException {
+        runScriptOfSets(FUNCTIONAL_LINES);
+    }
+
+    /**
+     * Runs a long script of added sets and reports how many commands it runs per second.
+     */
+    @Test
+    @Tag("benchmark")
+    public void longScript() throws IOException {
+        runScriptOfSets(BENCHMARK_LINES);
+    }
+
+    private void runScriptOfSets(int lines) throws IOException {
+        Path script = directory.resolve("script.txt");
+        try (BufferedWriter writer = Files.newBufferedWriter(script)) {
+            writer.write("add exercise Bench;chest;triceps;push\n");
+            for (int i = 1; i < lines - 1; i++) {
+                writer.write("add set " + LocalDate.ofEpochDay(19000 + i / 20) + ";Bench;"
+                    + (60 + i % 40) + ".5;" + (1 + i % 10) + "\n");
+            }
+            writer.write("print stats Bench\n");
+        }
+
+        Athletes athletes = athletes();
+        Script runner = new Script(athletes);
+        long started = System.nanoTime();
+        int commands = runner.run(script);
+        athletes.close();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.err.printf("%d script commands in %.2f s: %.0f commands/s%n",
+            commands, seconds, commands / seconds);
+
+        assertEquals(lines, commands);
+        assertEquals(0, runner.failedCommands());
+        assertEquals("sets: " + (lines - 2),
+            output.lines()[0]);
+    }
+
+    private Athletes athletes() throws IOException {
+        Files.createDirectories(directory.resolve("data"));
+        return new Athletes(directory.resolve("data").toString(), Durability.onQuit(), false, Long.MAX_VALUE);
+    }
+}
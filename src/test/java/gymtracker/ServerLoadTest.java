@@ -0,0 +1,147 @@
+package gymtracker;
+
+import static gymtracker.TestData.exercise;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for Server. Opens concurrent sessions over the loopback address,
+ * adds sets through each of them and reports the throughput and latency of
+ * the commands. The load of the load test can be changed with the system
+ * properties loadTest.sessions and loadTest.commands.
+ */
+public class ServerLoadTest {
+    private final static int SESSIONS = Integer.getInteger("loadTest.sessions", 2000);
+    private final static int COMMANDS_PER_SESSION = Integer.getInteger("loadTest.commands", 10);
+    private final static int FUNCTIONAL_SESSIONS = 20;
+    private final static int FUNCTIONAL_COMMANDS_PER_SESSION = 5;
+
+    @TempDir
+    Path directory;
+
+    // the server sends its sessions through a SessionOutput, and the capture
+    // puts the original standard output back after every test, also when it fails
+    @RegisterExtension
+    final TestData.CapturedOutput output = new TestData.CapturedOutput();
+
+    /**
+     * Sets added by concurrent sessions are all saved.
+     */
+    @Test
+    public void concurrentSessions() throws Exception {
+        runSessions(FUNCTIONAL_SESSIONS, FUNCTIONAL_COMMANDS_PER_SESSION);
+    }
+
+    /**
+     * Reports the throughput and latency of many concurrent sessions.
+     */
+    @Test
+    @Tag("benchmark")
+    public void manyConcurrentSessions() throws Exception {
+        runSessions(SESSIONS, COMMANDS_PER_SESSION);
+    }
+
+    private void runSessions(int sessions, int commandsPerSession) throws Exception {
+        Athletes athletes = new Athletes(directory.toString(), Durability.parse("group"), false, Long.MAX_VALUE);
+        Data data = athletes.use(Athletes.DEFAULT_ATHLETE);
+        assertTrue(data.addExercise(exercise("Bench")));
+        athletes.release(Athletes.DEFAULT_ATHLETE);
+
+        Server server = new Server(athletes, 0);
+        Thread serverThread = new Thread(server::run);
+        serverThread.start();
+        try {
+            assertEquals(0, runClients(server, sessions, commandsPerSession));
+        }
+        finally {
+            server.close();
+            athletes.close();
+        }
+
+        Data reloaded = new Data(new FileHandler(), directory.toString());
+        assertEquals("sets: " + sessions * commandsPerSession, output.printed(() -> reloaded.printStats("Bench"))[0]);
+        reloaded.close();
+    }
+
+    /**
+     * adds sets through concurrent client sessions and reports the throughput and latency
+     * @param server: the running server
+     * @param sessions: the number of sessions
+     * @param commandsPerSession: the number of sets that each session adds
+     * @return the number of sessions that failed
+     * @throws InterruptedException, if the test is interrupted
+     */
+    private int runClients(Server server, int sessions, int commandsPerSession) throws InterruptedException {
+
+        long[][] latencies = new long[sessions][commandsPerSession];
+        AtomicInteger failedSessions = new AtomicInteger();
+        CountDownLatch connected = new CountDownLatch(sessions);
+        CountDownLatch start = new CountDownLatch(1);
+        ArrayList<Thread> clients = new ArrayList<>();
+        for (int s = 0; s < sessions; s++) {
+            int session = s;
+            Thread client = new Thread(() -> {
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.port());
+                        BufferedReader input = new BufferedReader(
+                            new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                        PrintWriter commands = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+                    input.readLine();
+                    connected.countDown();
+                    start.await();
+                    for (int i = 0; i < commandsPerSession; i++) {
+                        long started = System.nanoTime();
+                        commands.println("add set 2024-01-" + (10 + i) + ";Bench;" + (session % 200) + ";5");
+                        String line = input.readLine();
+                        while (line != null && !line.equals("Set added succesfully.")) {
+                            line = input.readLine();
+                        }
+                        latencies[session][i] = System.nanoTime() - started;
+                        if (line == null) {
+                            throw new IllegalStateException("Connection closed");
+                        }
+                    }
+                    commands.println("quit");
+                }
+                catch (Exception e) {
+                    failedSessions.incrementAndGet();
+                    connected.countDown();
+                }
+            });
+            client.start();
+            clients.add(client);
+        }
+
+        connected.await();
+        long started = System.nanoTime();
+        start.countDown();
+        for (Thread client : clients) {
+            client.join();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        long[] allLatencies = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        long p50 = allLatencies[allLatencies.length / 2];
+        long p99 = allLatencies[(int) (allLatencies.length * 0.99)];
+        System.err.printf("%d sessions, %d commands in %.2f s: %.0f commands/s, p50 %.2f ms, p99 %.2f ms%n",
+            sessions, allLatencies.length, seconds, allLatencies.length / seconds, p50 / 1e6, p99 / 1e6);
+
+        return failedSessions.get();
+    }
+}
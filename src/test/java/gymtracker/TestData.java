@@ -0,0 +1,120 @@
+package gymtracker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Exercises, sets and printed output shared by the tests.
+ */
+class TestData {
+    /**
+     * returns a push exercise for the chest and triceps
+     * @param name: the name of the exercise
+     * @return the exercise
+     */
+    static Exercise exercise(String name) {
+        Exercise exercise = new Exercise();
+        exercise.name = name;
+        exercise.primaryMuscles = new ArrayList<>(List.of("chest"));
+        exercise.secondaryMuscles = new ArrayList<>(List.of("triceps"));
+        exercise.type = "push";
+        return exercise;
+    }
+
+    /**
+     * returns a set of one rep with 1 kg, so that its volume is 1
+     * @param date: the date of the set
+     * @param exercise: the name of the exercise
+     * @return the set
+     */
+    static Set set(String date, String exercise) {
+        return set(date, exercise, 1, 1);
+    }
+
+    /**
+     * returns a set with given weight and reps
+     * @param date: the date of the set
+     * @param exercise: the name of the exercise
+     * @param weight: the weight in kg
+     * @param reps: the number of reps
+     * @return the set
+     */
+    static Set set(String date, String exercise, float weight, int reps) {
+        Set set = new Set();
+        set.date = date;
+        set.day = Set.parseDate(date);
+        set.exercise = exercise;
+        set.weight = weight;
+        set.reps = reps;
+        return set;
+    }
+
+    /**
+     * Class for capturing what a test prints. It is registered with
+     * RegisterExtension, and it replaces System.out for each test. Every
+     * thread prints into its own buffer so that the output of one call can be
+     * checked while other threads print.
+     */
+    static class CapturedOutput implements BeforeEachCallback, AfterEachCallback {
+        private PrintStream originalOut;
+        private ThreadLocal<ByteArrayOutputStream> output;
+
+        @Override
+        public void beforeEach(ExtensionContext context) {
+            originalOut = System.out;
+            output = ThreadLocal.withInitial(ByteArrayOutputStream::new);
+            System.setOut(new PrintStream(new OutputStream() {
+                @Override
+                public void write(int b) {
+                    output.get().write(b);
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) {
+                    output.get().write(bytes, offset, length);
+                }
+            }, true, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void afterEach(ExtensionContext context) {
+            System.setOut(originalOut);
+        }
+
+        /**
+         * forgets what the current thread has printed
+         */
+        void reset() {
+            output.get().reset();
+        }
+
+        /**
+         * returns and forgets the lines the current thread has printed
+         * @return the printed lines
+         */
+        String[] lines() {
+            String[] lines = output.get().toString(StandardCharsets.UTF_8).split(System.lineSeparator());
+            output.get().reset();
+            return lines;
+        }
+
+        /**
+         * returns the lines printed by a call on the current thread
+         * @param print: the call
+         * @return the printed lines
+         */
+        String[] printed(Runnable print) {
+            reset();
+            print.run();
+            return lines();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package gymtracker;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for WorkloadGenerator.
+ */
+public class WorkloadGeneratorTest {
+    @TempDir
+    Path directory;
+
+    @RegisterExtension
+    final TestData.CapturedOutput output = new TestData.CapturedOutput();
+
+    /**
+     * The same seed gives the same files and another seed different files.
+     */
+    @Test
+    public void seedDecidesFiles() throws IOException {
+        assertTrue(generator(7, "first").generate());
+        assertTrue(generator(7, "second").generate());
+        assertTrue(generator(8, "third").generate());
+        for (String file : new String[] {"sets.txt", "athletes/athlete-1/sets.txt", "commands.txt"}) {
+            byte[] first = Files.readAllBytes(directory.resolve("first").resolve(file));
+            assertArrayEquals(first, Files.readAllBytes(directory.resolve("second").resolve(file)));
+            assertFalse(Arrays.equals(first, Files.readAllBytes(directory.resolve("third").resolve(file))));
+        }
+    }
+
+    /**
+     * The generated data is read like saved data, and every generated command succeeds when replayed.
+     */
+    @Test
+    public void commandsReplay() throws IOException {
+        WorkloadGenerator generator = generator(1, "data");
+        assertTrue(generator.generate());
+
+        Data data = new Data(new FileHandler(), directory.resolve("data").toString());
+        output.reset();
+        data.printStats("Bench Press");
+        data.close();
+        assertTrue(output.lines()[0].startsWith("sets: "));
+
+        Athletes athletes = new Athletes(directory.resolve("data").toString(), Durability.onQuit(), false, Long.MAX_VALUE);
+        Script script = new Script(athletes);
+        int commands = script.run(directory.resolve("data/commands.txt"));
+        athletes.close();
+        assertTrue(commands >= generator.commandCount);
+        assertEquals(0, script.failedCommands());
+    }
+
+    private WorkloadGenerator generator(long seed, String name) {
+        WorkloadGenerator generator = new WorkloadGenerator();
+        generator.seed = seed;
+        generator.athleteCount = 2;
+        generator.years = 1;
+        generator.commandCount = 2000;
+        generator.output = directory.resolve(name).toString();
+        return generator;
+    }
+}